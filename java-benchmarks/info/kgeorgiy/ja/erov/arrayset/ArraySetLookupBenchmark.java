@@ -0,0 +1,82 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Lookup latency of {@link ArraySet} with plain sorted and Eytzinger layouts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArraySetLookupBenchmark {
+    private final static int QUERIES = 1 << 12;
+
+    @Param({"1024", "1048576", "16777216"})
+    public int size;
+
+    @Param({"sorted", "eytzinger"})
+    public String layout;
+
+    private ArraySet<Long> set;
+    private Long[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(size);
+        final List<Long> elements = IntStream.range(0, size)
+                .mapToObj(i -> 2L * i)
+                .collect(Collectors.toList());
+        set = new ArraySet<>(elements, null, "eytzinger".equals(layout));
+        queries = random.longs(QUERIES, -1, 2L * size + 1).boxed().toArray(Long[]::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void contains(final Blackhole blackhole) {
+        for (Long query : queries) {
+            blackhole.consume(set.contains(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void floor(final Blackhole blackhole) {
+        for (Long query : queries) {
+            blackhole.consume(set.floor(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void ceiling(final Blackhole blackhole) {
+        for (Long query : queries) {
+            blackhole.consume(set.ceiling(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void lower(final Blackhole blackhole) {
+        for (Long query : queries) {
+            blackhole.consume(set.lower(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void higher(final Blackhole blackhole) {
+        for (Long query : queries) {
+            blackhole.consume(set.higher(query));
+        }
+    }
+}
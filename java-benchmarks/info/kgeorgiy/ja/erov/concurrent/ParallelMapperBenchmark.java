@@ -0,0 +1,73 @@
+package info.kgeorgiy.ja.erov.concurrent;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of {@link ParallelMapperImpl} on tiny tasks with the monitor-based and the ring buffer task queues.
+ * Tasks do almost no work, so results show the cost of passing them between threads.
+ * <p>
+ * {@code map} measures the whole call, which splits arguments into a few chunks per thread,
+ * so only a handful of tasks pass through the queue.
+ * {@code queue} feeds the queue of the same mapper with one task per element, measuring the queue itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelMapperBenchmark {
+    private final static int QUEUE_CAPACITY = 1 << 16;
+    private final static Function<Integer, Integer> INCREMENT = x -> x + 1;
+
+    @Param({"monitor", "ring"})
+    public String queue;
+
+    @Param({"4", "64"})
+    public int threads;
+
+    @Param({"1000", "1000000"})
+    public int tasks;
+
+    private ParallelMapperImpl mapper;
+    private BoundedQueue<Runnable> taskQueue;
+    private List<Integer> values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskQueue = switch (queue) {
+            case "monitor" -> new ConcurrentQueue<>(QUEUE_CAPACITY);
+            case "ring" -> new RingBufferQueue<>(QUEUE_CAPACITY);
+            default -> throw new IllegalArgumentException("unknown task queue: " + queue);
+        };
+        mapper = new ParallelMapperImpl(threads, taskQueue);
+        values = IntStream.range(0, tasks).boxed().collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public List<Integer> map() throws InterruptedException {
+        return mapper.map(INCREMENT, values);
+    }
+
+    @Benchmark
+    public List<Integer> queue() throws InterruptedException {
+        // workers of the mapper take these tasks as they would take chunks of map calls
+        final CollectingLatch<Integer> results = new CollectingLatch<>(tasks);
+        for (int i = 0; i != tasks; ++i) {
+            final int index = i;
+            taskQueue.add(() -> results.set(index, INCREMENT.apply(values.get(index))));
+        }
+        return results.getList();
+    }
+}
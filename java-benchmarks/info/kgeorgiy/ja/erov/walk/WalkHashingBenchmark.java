@@ -0,0 +1,129 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Hashing throughput of {@link FileHasher} and {@link Walker} on generated trees.
+ * Files are read from a warm page cache, so results show CPU and copy costs rather than disk speed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalkHashingBenchmark {
+    private final static int CHUNK_SIZE = 1 << 20;
+
+    @Benchmark
+    public void hashFiles(final GeneratedTree tree, final BufferedHasher buffered, final Blackhole blackhole) {
+        for (Path file : tree.files) {
+            blackhole.consume(buffered.hasher.hash(file));
+        }
+    }
+
+    /**
+     * Full {@code RecursiveWalk} path without output: traversal, attributes and default-sized buffer hashing.
+     * The walk has no buffer size of its own, so it does not depend on {@link BufferedHasher}.
+     */
+    @Benchmark
+    public void walkTree(final GeneratedTree tree) throws IOException {
+        Files.walkFileTree(tree.root, tree.walker);
+    }
+
+    @State(Scope.Benchmark)
+    public static class GeneratedTree {
+        /**
+         * Generated tree shape: many small files, many medium files or a few huge (memory-mapped) files.
+         */
+        @Param({"small", "medium", "huge"})
+        public String tree;
+
+        @Param({"SHA-1", "SHA-256", "XXH3", "XXH64", "CRC32C"})
+        public String digest;
+
+        private Path root;
+        private List<Path> files;
+        private DigestProvider provider;
+        private Walker walker;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, NoSuchAlgorithmException {
+            root = Files.createTempDirectory("walk-benchmark");
+            switch (tree) {
+                case "small" -> generate(20_000, 1 << 10);
+                case "medium" -> generate(256, 1 << 20);
+                case "huge" -> generate(2, 1 << 28);
+                default -> throw new IllegalArgumentException("unknown tree shape: " + tree);
+            }
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile).toList();
+            }
+
+            provider = Digests.forName(digest);
+            walker = new Walker(provider, new NullResultWriter());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            try (Stream<Path> walk = Files.walk(root)) {
+                for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+
+        private void generate(final int count, final int size) throws IOException {
+            final Random random = new Random(count);
+            final byte[] chunk = new byte[Math.min(size, CHUNK_SIZE)];
+            for (int i = 0; i != count; ++i) {
+                final Path dir = Files.createDirectories(root.resolve(String.format("dir-%d", i % 100)));
+                final Path file = dir.resolve(String.format("file-%d", i));
+                Files.createFile(file);
+                for (int written = 0; written < size; written += chunk.length) {
+                    random.nextBytes(chunk);
+                    Files.write(file, chunk, StandardOpenOption.APPEND);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-file hasher with the buffer size under test; only {@link #hashFiles} is run for each size.
+     */
+    @State(Scope.Benchmark)
+    public static class BufferedHasher {
+        @Param({"4096", "65536", "1048576"})
+        public int bufferSize;
+
+        private FileHasher hasher;
+
+        @Setup(Level.Trial)
+        public void setUp(final GeneratedTree tree) {
+            hasher = new FileHasher(tree.provider.create(), new WalkStatistics(), bufferSize);
+        }
+    }
+
+    private static class NullResultWriter implements ResultWriter {
+        @Override
+        public void write(final byte[] hash, final String file) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
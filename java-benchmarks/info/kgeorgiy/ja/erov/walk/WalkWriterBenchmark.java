@@ -0,0 +1,76 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ResultWriter} implementations on their own, without hashing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalkWriterBenchmark {
+    private final static int RECORDS = 100_000;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    @Param({"4", "20", "32"})
+    public int hashLength;
+
+    private String[] files;
+    private byte[][] hashes;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random random = new Random(RECORDS);
+        files = new String[RECORDS];
+        hashes = new byte[RECORDS][hashLength];
+        for (int i = 0; i != RECORDS; ++i) {
+            files[i] = String.format("/data/set-%d/dir-%d/file-%d.bin", i % 7, i % 1000, i);
+            random.nextBytes(hashes[i]);
+        }
+        output = Files.createTempFile("walk-benchmark", ".out");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(output);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void write() throws IOException {
+        try (ResultWriter writer = open()) {
+            for (int i = 0; i != RECORDS; ++i) {
+                writer.write(hashes[i], files[i]);
+            }
+        }
+    }
+
+
+    private ResultWriter open() throws IOException {
+        if ("binary".equals(format)) {
+            return new BinaryResultWriter(
+                    FileChannel.open(
+                            output,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING),
+                    "benchmark",
+                    hashLength);
+        }
+        return new TextResultWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8), hashLength);
+    }
+}
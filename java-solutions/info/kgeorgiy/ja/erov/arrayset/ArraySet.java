@@ -1,17 +1,27 @@
 package info.kgeorgiy.ja.erov.arrayset;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> implements NavigableSet<E> {
+    private final static int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    private final static int GALLOP_RATIO = 16;
+    private final static Object[] EMPTY = new Object[0];
     private final Comparator<? super E> comparator;
-    private final OrderedList<E> storage;
+    // order of the shared elements array; reverse of comparator for descending views
+    private final Comparator<? super E> order;
+    private final Object[] elements;
+    private final int from;
+    private final int to;
+    private final boolean descending;
+    private final EytzingerIndex<E> index;
 
     public ArraySet() {
-        this(new ArrayList<>(), false, null);
+        this(EMPTY, null, null);
     }
 
     public ArraySet(Comparator<? super E> comparator) {
-        this(new ArrayList<>(), false, comparator);
+        this(EMPTY, comparator, null);
     }
 
     public ArraySet(Collection<? extends E> collection) {
@@ -23,40 +33,65 @@ public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> im
     }
 
     public ArraySet(ArraySet<E> set) {
-        this(set.storage, false, set.comparator);
+        this(set.elements, set.from, set.to, set.descending, set.order, set.index);
     }
 
     public ArraySet(Collection<? extends E> collection,
                     Comparator<? super E> comparator) {
+        this(collection, comparator, false);
+    }
+
+    public ArraySet(Collection<? extends E> collection,
+                    Comparator<? super E> comparator,
+                    boolean readOptimized) {
         this.comparator = comparatorOrDefault(comparator);
-        this.storage = new OrderedList<>(asList(collection, comparator), false);
+        this.order = this.comparator;
+        this.elements = toSortedArray(collection, this.comparator);
+        this.from = 0;
+        this.to = elements.length;
+        this.descending = false;
+        this.index = readOptimized ? new EytzingerIndex<>(elements, this.comparator) : null;
+    }
+
+    private ArraySet(final Object[] elements,
+                     Comparator<? super E> comparator,
+                     EytzingerIndex<E> index) {
+        this(elements, 0, elements.length, false, comparator, index);
     }
 
-    private ArraySet(final List<E> list,
+    private ArraySet(final Object[] elements,
+                     int from,
+                     int to,
                      boolean descending,
-                     Comparator<? super E> comparator) {
-        this.comparator = comparatorOrDefault(comparator);
-        this.storage = new OrderedList<>(list, descending);
+                     Comparator<? super E> order,
+                     EytzingerIndex<E> index) {
+        this.order = comparatorOrDefault(order);
+        this.comparator = descending ? Collections.reverseOrder(this.order) : this.order;
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+        this.descending = descending;
+        this.index = index;
     }
 
     @Override
     public E lower(E e) {
-        return itemBound(e, true, false);
+        return itemBound(e, !descending, false);
     }
 
     @Override
     public E floor(E e) {
-        return itemBound(e, true, true);
+        return itemBound(e, !descending, true);
     }
 
     @Override
     public E ceiling(E e) {
-        return itemBound(e, false, true);
+        return itemBound(e, descending, true);
     }
 
     @Override
     public E higher(E e) {
-        return itemBound(e, false, false);
+        return itemBound(e, descending, false);
     }
 
     @Override
@@ -71,12 +106,27 @@ public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> im
 
     @Override
     public Iterator<E> iterator() {
-        return storage.iterator();
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("next() error: no more elements in ArraySet");
+                }
+                return get(next++);
+            }
+        };
     }
 
     @Override
     public NavigableSet<E> descendingSet() {
-        return new ArraySet<>(storage.list, !storage.descending, Collections.reverseOrder(comparator));
+        return new ArraySet<>(elements, from, to, !descending, order, index);
     }
 
     @Override
@@ -92,20 +142,23 @@ public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> im
         if (comparator.compare(fromElement, toElement) > 0) {
             throw new IllegalArgumentException("Taking subset error: fromElement > toElement");
         }
-        return subSetImpl(
-                indexBound(fromElement, false, fromInclusive),
-                indexBound(toElement, false, !toInclusive)
-        );
+        return descending
+                ? subSetImpl(ceilingIndex(toElement, toInclusive), floorIndex(fromElement, fromInclusive) + 1)
+                : subSetImpl(ceilingIndex(fromElement, fromInclusive), floorIndex(toElement, toInclusive) + 1);
     }
 
     @Override
     public NavigableSet<E> headSet(E toElement, boolean inclusive) {
-        return subSetImpl(0, indexBound(toElement, false, !inclusive));
+        return descending
+                ? subSetImpl(ceilingIndex(toElement, inclusive), to)
+                : subSetImpl(from, floorIndex(toElement, inclusive) + 1);
     }
 
     @Override
     public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
-        return subSetImpl(indexBound(fromElement, false, inclusive), size());
+        return descending
+                ? subSetImpl(from, floorIndex(fromElement, inclusive) + 1)
+                : subSetImpl(ceilingIndex(fromElement, inclusive), to);
     }
 
     @Override
@@ -133,7 +186,7 @@ public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> im
         if (isEmpty()) {
             throw new NoSuchElementException("first() error: ArraySet is empty");
         }
-        return storage.get(0);
+        return get(0);
     }
 
     @Override
@@ -141,12 +194,12 @@ public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> im
         if (isEmpty()) {
             throw new NoSuchElementException("last() error: ArraySet is empty");
         }
-        return storage.get(size() - 1);
+        return get(size() - 1);
     }
 
     @Override
     public int size() {
-        return storage.size();
+        return to - from;
     }
 
     @SuppressWarnings("unchecked")
@@ -155,35 +208,246 @@ public class ArraySet<E extends Comparable<? super E>> extends AbstractSet<E> im
         return search((E) o) >= 0;
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean containsAll(Collection<?> collection) {
+        if (!(collection instanceof ArraySet<?> set) || !sameOrder(set)) {
+            return super.containsAll(collection);
+        }
+        final ArraySet<E> other = (ArraySet<E>) set;
+        final boolean gallop = gallops(size(), other.size());
+        int i = 0;
+        for (final E element : other) {
+            i = advance(this, i, element, gallop);
+            if (i == size() || comparator.compare(get(i), element) != 0) {
+                return false;
+            }
+            ++i;
+        }
+        return true;
+    }
 
-    private int search(E element) {
-        return Collections.binarySearch(storage, element, comparator);
+    public ArraySet<E> union(ArraySet<E> other) {
+        if (!sameOrder(other)) {
+            final List<E> all = new ArrayList<>(size() + other.size());
+            all.addAll(this);
+            all.addAll(other);
+            return new ArraySet<>(all, comparator);
+        }
+        return merge(other, true, true, true);
     }
 
-    private int indexBound(E e, boolean lower, boolean inclusive) {
-        int ind = search(e);
-        if (ind < 0) {
-            ind = -(ind + 1) - (lower ? 1 : 0);
-        } else {
-            ind += (lower ? -1 : 1) * (inclusive ? 0 : 1);
+    public ArraySet<E> intersection(ArraySet<E> other) {
+        if (!sameOrder(other)) {
+            return filter(other::contains);
         }
-        return ind;
+        return merge(other, false, true, false);
+    }
+
+    public ArraySet<E> difference(ArraySet<E> other) {
+        if (!sameOrder(other)) {
+            return filter(e -> !other.contains(e));
+        }
+        return merge(other, true, false, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E get(int i) {
+        return (E) elements[descending ? to - 1 - i : from + i];
+    }
+
+    // position in elements, in the same format as Arrays#binarySearch restricted to [from, to)
+    @SuppressWarnings("unchecked")
+    private int search(E element) {
+        if (index == null) {
+            return Arrays.binarySearch(elements, from, to, element, (Comparator<Object>) order);
+        }
+        final int found = index.search(element);
+        if (found >= from && found < to) {
+            return found;
+        }
+        final int insertion = found < 0 ? -(found + 1) : found;
+        return -(Math.max(from, Math.min(to, insertion)) + 1);
+    }
+
+    // first position in elements whose element is above (or equal to) e in elements order, up to to
+    private int ceilingIndex(E e, boolean inclusive) {
+        final int ind = search(e);
+        return ind < 0 ? -(ind + 1) : ind + (inclusive ? 0 : 1);
+    }
+
+    // last position in elements whose element is below (or equal to) e in elements order, down to from - 1
+    private int floorIndex(E e, boolean inclusive) {
+        final int ind = search(e);
+        return ind < 0 ? -(ind + 1) - 1 : ind - (inclusive ? 0 : 1);
     }
 
+    @SuppressWarnings("unchecked")
     private E itemBound(E e, boolean lower, boolean inclusive) {
-        int ind = indexBound(e, lower, inclusive);
-        return ind < 0 || ind >= size() ? null : storage.get(ind);
+        final int ind = lower ? floorIndex(e, inclusive) : ceilingIndex(e, inclusive);
+        return ind < from || ind >= to ? null : (E) elements[ind];
+    }
+
+    private boolean sameOrder(ArraySet<?> other) {
+        return comparator.equals(other.comparator);
+    }
+
+    private static boolean gallops(int size, int otherSize) {
+        return size / GALLOP_RATIO > otherSize || otherSize / GALLOP_RATIO > size;
+    }
+
+    // a counting pass, cheap with galloping, sizes the result exactly, so the output array is the only allocation
+    private ArraySet<E> merge(ArraySet<E> other, boolean onlyThis, boolean both, boolean onlyOther) {
+        final Object[] result = new Object[mergeInto(other, onlyThis, both, onlyOther, null)];
+        mergeInto(other, onlyThis, both, onlyOther, result);
+        return new ArraySet<E>(result, comparator, null);
+    }
+
+    // elements equal in both sets are taken from this one, as with addAll into a TreeSet;
+    // with null result elements are only counted
+    private int mergeInto(ArraySet<E> other, boolean onlyThis, boolean both, boolean onlyOther, Object[] result) {
+        final ArraySet<E> left = this;
+        final ArraySet<E> right = other;
+        final boolean gallop = gallops(left.size(), right.size());
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            final int cmp = comparator.compare(left.get(i), right.get(j));
+            if (cmp < 0) {
+                final int next = advance(left, i + 1, right.get(j), gallop);
+                if (onlyThis) {
+                    size = copy(left, i, next, result, size);
+                }
+                i = next;
+            } else if (cmp > 0) {
+                final int next = advance(right, j + 1, left.get(i), gallop);
+                if (onlyOther) {
+                    size = copy(right, j, next, result, size);
+                }
+                j = next;
+            } else {
+                if (both) {
+                    if (result != null) {
+                        result[size] = left.get(i);
+                    }
+                    ++size;
+                }
+                ++i;
+                ++j;
+            }
+        }
+        if (onlyThis) {
+            size = copy(left, i, left.size(), result, size);
+        }
+        if (onlyOther) {
+            size = copy(right, j, right.size(), result, size);
+        }
+        return size;
+    }
+
+    private ArraySet<E> filter(Predicate<? super E> predicate) {
+        final Object[] result = new Object[size()];
+        int size = 0;
+        for (final E element : this) {
+            if (predicate.test(element)) {
+                result[size++] = element;
+            }
+        }
+        return new ArraySet<E>(trim(result, size), comparator, null);
+    }
+
+    // first index in [from, size) whose element is not less than key
+    private int advance(ArraySet<E> set, int from, E key, boolean gallop) {
+        if (!gallop) {
+            while (from < set.size() && comparator.compare(set.get(from), key) < 0) {
+                ++from;
+            }
+            return from;
+        }
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < set.size() && comparator.compare(set.get(high), key) < 0) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, set.size());
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (comparator.compare(set.get(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int copy(ArraySet<E> set, int from, int to, Object[] result, int size) {
+        if (result == null) {
+            return size + to - from;
+        }
+        for (int i = from; i < to; ++i) {
+            result[size++] = set.get(i);
+        }
+        return size;
+    }
+
+    private static Object[] trim(Object[] elements, int size) {
+        return size == elements.length ? elements : Arrays.copyOf(elements, size);
     }
 
+    // bounds are positions in elements; an inverted range, as for subSet(e, false, e, false), is empty
     private NavigableSet<E> subSetImpl(int fromIndex, int toIndex) {
-        return new ArraySet<>(storage.subList(fromIndex, toIndex), storage.descending, comparator);
+        return new ArraySet<>(elements, fromIndex, Math.max(fromIndex, toIndex), descending, order, index);
     }
 
-    private List<E> asList(Collection<? extends E> collection,
-                           Comparator<? super E> comparator) {
-        TreeSet<E> treeSet = new TreeSet<>(comparator);
-        treeSet.addAll(collection);
-        return new ArrayList<>(treeSet);
+    @SuppressWarnings("unchecked")
+    private Object[] toSortedArray(Collection<? extends E> collection,
+                                   Comparator<? super E> comparator) {
+        final Object[] elements = collection.toArray();
+        if (comparator == Comparator.naturalOrder()) {
+            // as TreeSet does; inputs of one element are never compared
+            for (final Object element : elements) {
+                Objects.requireNonNull(element, "Creating ArraySet error: null element under natural ordering");
+            }
+        }
+        if (collection instanceof SortedSet<?> sortedSet
+                && comparator.equals(comparatorOrDefault((Comparator<? super E>) sortedSet.comparator()))) {
+            return elements;
+        }
+
+        final Comparator<Object> elementsComparator = (Comparator<Object>) comparator;
+        if (!isSorted(elements, elementsComparator)) {
+            if (elements.length >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(elements, elementsComparator);
+            } else {
+                Arrays.sort(elements, elementsComparator);
+            }
+        }
+        return trim(elements, distinctPrefix(elements, elementsComparator));
+    }
+
+    private static boolean isSorted(Object[] elements, Comparator<Object> comparator) {
+        for (int i = 1; i < elements.length; ++i) {
+            if (comparator.compare(elements[i - 1], elements[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // moves first of each run of equal elements to the front, as TreeSet keeps the first added one
+    private static int distinctPrefix(Object[] sorted, Comparator<Object> comparator) {
+        int size = 0;
+        for (int i = 0; i != sorted.length; ++i) {
+            if (size == 0 || comparator.compare(sorted[size - 1], sorted[i]) != 0) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size;
     }
 
     private Comparator<? super E> comparatorOrDefault(Comparator<? super E> comparator) {
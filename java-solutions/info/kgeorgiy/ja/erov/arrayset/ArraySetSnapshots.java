@@ -0,0 +1,279 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// layout: MAGIC, kind, order, [comparator length, serialized comparator], size, payload
+// payload is size fixed-width values for INT and LONG, or size + 1 offsets followed by element bytes otherwise;
+// elements follow the comparator, except LONG in reverse natural order, which is stored ascending to be mapped as is
+public final class ArraySetSnapshots {
+    final static int MAGIC = 0x41525353;
+    private final static byte OBJECT = 0;
+    private final static byte INT = 1;
+    private final static byte LONG = 2;
+    private final static byte STRING = 3;
+    private final static byte NATURAL_ORDER = 0;
+    private final static byte REVERSE_ORDER = 1;
+    private final static byte SERIALIZED_ORDER = 2;
+
+    private ArraySetSnapshots() {
+    }
+
+    // the snapshot is written next to the file and moved over it, so a failed write keeps the previous snapshot
+    public static void write(SortedSet<?> set, Path file) throws IOException {
+        final byte kind = kindOf(set);
+        checkSerializable(set.comparator(), kind == OBJECT ? set : List.of());
+        final Path target = file.toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            writeTo(set, kind, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeTo(SortedSet<?> set, byte kind, Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(kind);
+            final byte order = writeOrder(set.comparator(), output);
+            output.writeInt(set.size());
+            switch (kind) {
+                case INT -> {
+                    for (final Object element : set) {
+                        output.writeInt((Integer) element);
+                    }
+                }
+                case LONG -> {
+                    final long[] values = new long[set.size()];
+                    int i = order == REVERSE_ORDER ? values.length : -1;
+                    for (final Object element : set) {
+                        values[order == REVERSE_ORDER ? --i : ++i] = (Long) element;
+                    }
+                    for (final long value : values) {
+                        output.writeLong(value);
+                    }
+                }
+                default -> {
+                    final List<byte[]> encoded = new ArrayList<>(set.size());
+                    for (final Object element : set) {
+                        encoded.add(kind == STRING ? ((String) element).getBytes(StandardCharsets.UTF_8) : serialize(element));
+                    }
+                    int offset = 0;
+                    output.writeInt(offset);
+                    for (final byte[] bytes : encoded) {
+                        offset = Math.addExact(offset, bytes.length);
+                        output.writeInt(offset);
+                    }
+                    for (final byte[] bytes : encoded) {
+                        output.write(bytes);
+                    }
+                }
+            }
+        }
+    }
+
+    public static <E extends Comparable<? super E>> ArraySet<E> read(Path file, Class<?>... allowedClasses)
+            throws IOException {
+        final NavigableSet<E> mapped = map(file, allowedClasses);
+        return new ArraySet<>(mapped, mapped.comparator());
+    }
+
+    // elements are decoded from the mapping on first access; LONG snapshots in natural order are not decoded at all;
+    // OBJECT elements and serialized comparators may only be of allowed classes, their supertypes and primitive arrays
+    @SuppressWarnings("unchecked")
+    public static <E> NavigableSet<E> map(Path file, Class<?>... allowedClasses) throws IOException {
+        final ObjectInputFilter filter = allowing(List.of(allowedClasses));
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("snapshot is too large to map");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not an ArraySet snapshot file");
+            }
+            final byte kind = buffer.get();
+            final Comparator<Object> order = (Comparator<Object>) readOrder(buffer, filter);
+            final int size = buffer.getInt();
+            if (size < 0) {
+                throw new IOException("corrupted ArraySet snapshot file");
+            }
+            final ByteBuffer payload = buffer.slice();
+            return (NavigableSet<E>) switch (kind) {
+                case INT -> {
+                    checkFixedWidth(payload, size, Integer.BYTES);
+                    yield new MappedArraySet<>(i -> payload.getInt(i * Integer.BYTES), size, order);
+                }
+                case LONG -> mapLongs(payload, size, order);
+                case STRING -> new MappedArraySet<>(
+                        variableWidth(payload, size, bytes -> new String(bytes, StandardCharsets.UTF_8)), size, order);
+                case OBJECT -> new MappedArraySet<>(
+                        variableWidth(payload, size, bytes -> deserialize(bytes, filter)), size, order);
+                default -> throw new IOException("unknown ArraySet snapshot element kind " + kind);
+            };
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("corrupted ArraySet snapshot file", e);
+        }
+    }
+
+
+    private static byte kindOf(Collection<?> set) {
+        if (set.isEmpty()) {
+            return OBJECT;
+        }
+        final Class<?> type = set.iterator().next().getClass();
+        for (final Object element : set) {
+            if (element.getClass() != type) {
+                return OBJECT;
+            }
+        }
+        if (type == Integer.class) {
+            return INT;
+        } else if (type == Long.class) {
+            return LONG;
+        } else if (type == String.class) {
+            return STRING;
+        }
+        return OBJECT;
+    }
+
+    private static void checkSerializable(Comparator<?> comparator, Collection<?> elements) throws IOException {
+        if (comparator != null && !isBuiltInOrder(comparator) && !(comparator instanceof Serializable)) {
+            throw new NotSerializableException(comparator.getClass().getName());
+        }
+        for (final Object element : elements) {
+            if (!(element instanceof Serializable)) {
+                throw new NotSerializableException(element.getClass().getName());
+            }
+        }
+    }
+
+    private static boolean isBuiltInOrder(Comparator<?> comparator) {
+        return comparator.equals(Comparator.naturalOrder()) || comparator.equals(Collections.reverseOrder());
+    }
+
+    private static byte writeOrder(Comparator<?> comparator, DataOutputStream output) throws IOException {
+        if (comparator == null || comparator.equals(Comparator.naturalOrder())) {
+            output.writeByte(NATURAL_ORDER);
+            return NATURAL_ORDER;
+        } else if (comparator.equals(Collections.reverseOrder())) {
+            output.writeByte(REVERSE_ORDER);
+            return REVERSE_ORDER;
+        } else if (comparator instanceof Serializable) {
+            final byte[] bytes = serialize(comparator);
+            output.writeByte(SERIALIZED_ORDER);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            return SERIALIZED_ORDER;
+        }
+        throw new NotSerializableException(comparator.getClass().getName());
+    }
+
+    private static Comparator<?> readOrder(ByteBuffer buffer, ObjectInputFilter filter) throws IOException {
+        final byte order = buffer.get();
+        return switch (order) {
+            case NATURAL_ORDER -> Comparator.naturalOrder();
+            case REVERSE_ORDER -> Collections.reverseOrder();
+            case SERIALIZED_ORDER -> {
+                final int length = buffer.getInt();
+                if (length < 0) {
+                    throw new IOException("corrupted ArraySet snapshot file");
+                }
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                try {
+                    yield (Comparator<?>) deserialize(bytes, filter);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            default -> throw new IOException("unknown ArraySet snapshot order " + order);
+        };
+    }
+
+    private static NavigableSet<?> mapLongs(ByteBuffer payload, int size, Comparator<Object> order) throws IOException {
+        checkFixedWidth(payload, size, Long.BYTES);
+        if (order.equals(Comparator.naturalOrder())) {
+            return new DirectLongArraySet(payload.slice(0, size * Long.BYTES).asLongBuffer());
+        } else if (order.equals(Collections.reverseOrder())) {
+            return new DirectLongArraySet(payload.slice(0, size * Long.BYTES).asLongBuffer()).descendingSet();
+        }
+        return new MappedArraySet<>(i -> payload.getLong(i * Long.BYTES), size, order);
+    }
+
+    private static void checkFixedWidth(ByteBuffer payload, int size, int width) throws IOException {
+        if ((long) size * width > payload.remaining()) {
+            throw new IOException("corrupted ArraySet snapshot file");
+        }
+    }
+
+    private static <E> IntFunction<E> variableWidth(ByteBuffer payload, int size, Function<byte[], E> decode)
+            throws IOException {
+        if ((size + 1L) * Integer.BYTES > payload.remaining()
+                || (size + 1L) * Integer.BYTES + payload.getInt(size * Integer.BYTES) > payload.remaining()) {
+            throw new IOException("corrupted ArraySet snapshot file");
+        }
+        final int offsets = (size + 1) * Integer.BYTES;
+        return i -> {
+            final int start = payload.getInt(i * Integer.BYTES);
+            final byte[] bytes = new byte[payload.getInt((i + 1) * Integer.BYTES) - start];
+            payload.get(offsets + start, bytes);
+            return decode.apply(bytes);
+        };
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    // superclass descriptors of allowed classes are read too, so supertypes are allowed, but not subtypes
+    private static ObjectInputFilter allowing(List<Class<?>> allowed) {
+        final ObjectInputFilter filter = info -> {
+            Class<?> type = info.serialClass();
+            if (type == null) {
+                return ObjectInputFilter.Status.UNDECIDED;
+            }
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            for (final Class<?> allowedClass : allowed) {
+                if (type.isAssignableFrom(allowedClass)) {
+                    return ObjectInputFilter.Status.ALLOWED;
+                }
+            }
+            return type.isPrimitive() ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+        };
+        final ObjectInputFilter global = ObjectInputFilter.Config.getSerialFilter();
+        return global == null ? filter : ObjectInputFilter.merge(global, filter);
+    }
+
+    private static Object deserialize(byte[] bytes, ObjectInputFilter filter) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            input.setObjectInputFilter(filter);
+            return input.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException(new InvalidClassException(e.getMessage()));
+        }
+    }
+}
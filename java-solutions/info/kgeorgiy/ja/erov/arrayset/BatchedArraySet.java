@@ -0,0 +1,476 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BatchedArraySet<E extends Comparable<? super E>> extends AbstractSet<E> implements NavigableSet<E> {
+    private final static int DEFAULT_BATCH_SIZE = 1024;
+    private final Comparator<? super E> comparator;
+    private final int batchSize;
+    private final AtomicReference<Version<E>> version;
+
+    public BatchedArraySet() {
+        this(Collections.emptyList(), null);
+    }
+
+    public BatchedArraySet(Comparator<? super E> comparator) {
+        this(Collections.emptyList(), comparator);
+    }
+
+    public BatchedArraySet(Collection<? extends E> collection,
+                           Comparator<? super E> comparator) {
+        this(collection, comparator, DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchedArraySet(Collection<? extends E> collection,
+                           Comparator<? super E> comparator,
+                           int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Creating BatchedArraySet error: batch size should be positive");
+        }
+        this.comparator = comparator;
+        this.batchSize = batchSize;
+        this.version = new AtomicReference<>(new Version<>(new ArraySet<>(collection, comparator), empty(), empty()));
+    }
+
+    // immutable view of the current version, merging base and deltas on the fly without copying them
+    public NavigableSet<E> snapshot() {
+        return version.get().view();
+    }
+
+    // navigation methods and views below read a snapshot taken at the moment of the call
+
+    @Override
+    public E lower(E e) {
+        return snapshot().lower(e);
+    }
+
+    @Override
+    public E floor(E e) {
+        return snapshot().floor(e);
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return snapshot().ceiling(e);
+    }
+
+    @Override
+    public E higher(E e) {
+        return snapshot().higher(e);
+    }
+
+    @Override
+    public E first() {
+        return snapshot().first();
+    }
+
+    @Override
+    public E last() {
+        return snapshot().last();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return snapshot().descendingSet();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return snapshot().descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return snapshot().subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return snapshot().headSet(toElement, inclusive);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return snapshot().tailSet(fromElement, inclusive);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return version.get().base.comparator();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return version.get().contains(o);
+    }
+
+    @Override
+    public int size() {
+        return version.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public synchronized boolean add(E e) {
+        final Version<E> current = version.get();
+        if (current.contains(e)) {
+            return false;
+        }
+        final ArraySet<E> single = singleton(e);
+        publish(current.removed.contains(e)
+                ? new Version<>(current.base, current.added, current.removed.difference(single))
+                : new Version<>(current.base, current.added.union(single), current.removed));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        final Version<E> current = version.get();
+        if (!current.contains(o)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked") final ArraySet<E> single = singleton((E) o);
+        publish(current.added.contains(o)
+                ? new Version<>(current.base, current.added.difference(single), current.removed)
+                : new Version<>(current.base, current.added, current.removed.union(single)));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends E> collection) {
+        final Version<E> current = version.get();
+        final ArraySet<E> batch = new ArraySet<>(collection, comparator);
+        final ArraySet<E> fresh = batch.difference(current.base);
+        final Version<E> updated = new Version<>(
+                current.base,
+                current.added.union(fresh),
+                current.removed.difference(batch)
+        );
+        publish(updated);
+        return updated.size() != current.size();
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> collection) {
+        final Version<E> current = version.get();
+        final ArraySet<E> batch = batch(collection);
+        final Version<E> updated = new Version<>(
+                current.base,
+                current.added.difference(batch),
+                current.removed.union(current.base.intersection(batch))
+        );
+        publish(updated);
+        return updated.size() != current.size();
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> collection) {
+        final Version<E> current = version.get();
+        final ArraySet<E> batch = batch(collection);
+        final Version<E> updated = new Version<>(
+                current.base,
+                current.added.intersection(batch),
+                current.removed.union(current.base.difference(batch))
+        );
+        publish(updated);
+        return updated.size() != current.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        version.set(new Version<>(empty(), empty(), empty()));
+    }
+
+    @Override
+    public synchronized E pollFirst() {
+        final Version<E> current = version.get();
+        if (current.size() == 0) {
+            return null;
+        }
+        final E first = current.view().first();
+        remove(first);
+        return first;
+    }
+
+    @Override
+    public synchronized E pollLast() {
+        final Version<E> current = version.get();
+        if (current.size() == 0) {
+            return null;
+        }
+        final E last = current.view().last();
+        remove(last);
+        return last;
+    }
+
+    public synchronized void flush() {
+        final Version<E> current = version.get();
+        if (!current.isCompact()) {
+            version.set(current.compact());
+        }
+    }
+
+    private void publish(Version<E> updated) {
+        version.set(updated.added.size() + updated.removed.size() >= batchSize ? updated.compact() : updated);
+    }
+
+    private ArraySet<E> empty() {
+        return new ArraySet<E>(comparator);
+    }
+
+    private ArraySet<E> singleton(E e) {
+        return new ArraySet<>(List.of(e), comparator);
+    }
+
+    // elements of another type fail on comparison, as they would in a TreeSet
+    @SuppressWarnings("unchecked")
+    private ArraySet<E> batch(Collection<?> collection) {
+        return new ArraySet<>((Collection<? extends E>) collection, comparator);
+    }
+
+    // added is disjoint with base, removed is a subset of base
+    private record Version<E extends Comparable<? super E>>(ArraySet<E> base, ArraySet<E> added, ArraySet<E> removed) {
+        boolean isCompact() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+
+        Version<E> compact() {
+            final ArraySet<E> empty = new ArraySet<E>(base.comparator());
+            return new Version<>(base.difference(removed).union(added), empty, empty);
+        }
+
+        boolean contains(Object o) {
+            return added.contains(o) || base.contains(o) && !removed.contains(o);
+        }
+
+        int size() {
+            return base.size() + added.size() - removed.size();
+        }
+
+        NavigableSet<E> view() {
+            return isCompact() ? base : new MergedView<>(base, added, removed);
+        }
+    }
+
+    // same invariants as Version; every view narrows or reverses all three sets together
+    private static final class MergedView<E extends Comparable<? super E>> extends AbstractSet<E> implements NavigableSet<E> {
+        private final NavigableSet<E> base;
+        private final NavigableSet<E> added;
+        private final NavigableSet<E> removed;
+        private final Comparator<? super E> order;
+
+        MergedView(NavigableSet<E> base, NavigableSet<E> added, NavigableSet<E> removed) {
+            this.base = base;
+            this.added = added;
+            this.removed = removed;
+            this.order = base.comparator() == null ? Comparator.naturalOrder() : base.comparator();
+        }
+
+        @Override
+        public E lower(E e) {
+            return nearest(base.headSet(e, false).descendingSet(), added.headSet(e, false).descendingSet(), true);
+        }
+
+        @Override
+        public E floor(E e) {
+            return nearest(base.headSet(e, true).descendingSet(), added.headSet(e, true).descendingSet(), true);
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return nearest(base.tailSet(e, true), added.tailSet(e, true), false);
+        }
+
+        @Override
+        public E higher(E e) {
+            return nearest(base.tailSet(e, false), added.tailSet(e, false), false);
+        }
+
+        @Override
+        public E pollFirst() {
+            throw new UnsupportedOperationException("pollFirst() error: snapshot is immutable");
+        }
+
+        @Override
+        public E pollLast() {
+            throw new UnsupportedOperationException("pollLast() error: snapshot is immutable");
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private final Iterator<E> bases = base.iterator();
+                private final Iterator<E> removes = removed.iterator();
+                private final Iterator<E> adds = added.iterator();
+                private E removedHead = nextOrNull(removes);
+                private E baseHead = nextLive();
+                private E addedHead = nextOrNull(adds);
+
+                @Override
+                public boolean hasNext() {
+                    return baseHead != null || addedHead != null;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("next() error: no more elements in snapshot");
+                    }
+                    final E result;
+                    if (addedHead == null || baseHead != null && order.compare(baseHead, addedHead) < 0) {
+                        result = baseHead;
+                        baseHead = nextLive();
+                    } else {
+                        result = addedHead;
+                        addedHead = nextOrNull(adds);
+                    }
+                    return result;
+                }
+
+                // removed is a subset of base, so both are walked in one pass
+                private E nextLive() {
+                    while (bases.hasNext()) {
+                        final E element = bases.next();
+                        if (removedHead == null || order.compare(element, removedHead) != 0) {
+                            return element;
+                        }
+                        removedHead = nextOrNull(removes);
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new MergedView<>(base.descendingSet(), added.descendingSet(), removed.descendingSet());
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return new MergedView<>(
+                    base.subSet(fromElement, fromInclusive, toElement, toInclusive),
+                    added.subSet(fromElement, fromInclusive, toElement, toInclusive),
+                    removed.subSet(fromElement, fromInclusive, toElement, toInclusive)
+            );
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return new MergedView<>(
+                    base.headSet(toElement, inclusive),
+                    added.headSet(toElement, inclusive),
+                    removed.headSet(toElement, inclusive)
+            );
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return new MergedView<>(
+                    base.tailSet(fromElement, inclusive),
+                    added.tailSet(fromElement, inclusive),
+                    removed.tailSet(fromElement, inclusive)
+            );
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return base.comparator();
+        }
+
+        @Override
+        public E first() {
+            if (isEmpty()) {
+                throw new NoSuchElementException("first() error: snapshot is empty");
+            }
+            return nearest(base, added, false);
+        }
+
+        @Override
+        public E last() {
+            if (isEmpty()) {
+                throw new NoSuchElementException("last() error: snapshot is empty");
+            }
+            return nearest(base.descendingSet(), added.descendingSet(), true);
+        }
+
+        @Override
+        public int size() {
+            return base.size() + added.size() - removed.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return added.contains(o) || base.contains(o) && !removed.contains(o);
+        }
+
+        // first live element of the ranges in their iteration order; at most removed.size() + 1 base elements are visited
+        private E nearest(NavigableSet<E> bases, NavigableSet<E> adds, boolean last) {
+            E result = null;
+            for (final E element : bases) {
+                if (!removed.contains(element)) {
+                    result = element;
+                    break;
+                }
+            }
+            if (adds.isEmpty()) {
+                return result;
+            }
+            final E candidate = adds.first();
+            if (result == null) {
+                return candidate;
+            }
+            final int cmp = order.compare(candidate, result);
+            return (last ? cmp > 0 : cmp < 0) ? candidate : result;
+        }
+
+        private static <E> E nextOrNull(Iterator<E> iterator) {
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Collection;
+
+// off-heap storage is a direct LongBuffer rather than a MemorySegment, as the foreign memory API is not final in Java 17;
+// a direct buffer is indexed by int bytes, so it holds at most MAX_SIZE keys
+public class DirectLongArraySet extends PrimitiveArraySet<Long> {
+    private final static int MAX_SIZE = Integer.MAX_VALUE / Long.BYTES;
+    private final LongBuffer storage;
+
+    public DirectLongArraySet() {
+        this(new long[0]);
+    }
+
+    public DirectLongArraySet(Collection<Long> collection) {
+        this(collection.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public DirectLongArraySet(long[] values) {
+        this(offHeap(LongArraySet.sortedDistinct(values)), false);
+    }
+
+    private DirectLongArraySet(LongBuffer storage, boolean descending) {
+        this(storage, 0, storage.capacity(), descending);
+    }
+
+    // storage should already be sorted and distinct, as in a snapshot mapping
+    DirectLongArraySet(LongBuffer storage) {
+        this(storage, false);
+    }
+
+    private DirectLongArraySet(LongBuffer storage, int from, int to, boolean descending) {
+        super(from, to, descending);
+        this.storage = storage;
+    }
+
+    public boolean contains(long value) {
+        return containsKey(value);
+    }
+
+    @Override
+    protected long key(int index) {
+        return storage.get(index);
+    }
+
+    @Override
+    protected long unbox(Object e) {
+        return (Long) e;
+    }
+
+    @Override
+    protected Long box(long key) {
+        return key;
+    }
+
+    @Override
+    protected DirectLongArraySet view(int from, int to, boolean descending) {
+        return new DirectLongArraySet(storage, from, to, descending);
+    }
+
+
+    private static LongBuffer offHeap(long[] values) {
+        final int bytes;
+        try {
+            bytes = Math.multiplyExact(values.length, Long.BYTES);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                    "Creating DirectLongArraySet error: at most " + MAX_SIZE + " keys fit off-heap, got " + values.length);
+        }
+        final LongBuffer buffer = ByteBuffer.allocateDirect(bytes)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer();
+        buffer.put(values);
+        return buffer;
+    }
+}
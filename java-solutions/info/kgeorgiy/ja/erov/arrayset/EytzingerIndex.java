@@ -0,0 +1,43 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.util.Comparator;
+
+class EytzingerIndex<E> {
+    private final Object[] tree;
+    private final int[] ranks;
+    private final Comparator<? super E> comparator;
+
+    EytzingerIndex(final Object[] sorted, final Comparator<? super E> comparator) {
+        this.tree = new Object[sorted.length + 1];
+        this.ranks = new int[sorted.length + 1];
+        this.comparator = comparator;
+        fill(sorted, 0, 1);
+    }
+
+    // same contract as Arrays#binarySearch over the sorted array
+    @SuppressWarnings("unchecked")
+    int search(final E key) {
+        final int size = tree.length - 1;
+        int node = 1;
+        while (node <= size) {
+            node = 2 * node + (comparator.compare((E) tree[node], key) < 0 ? 1 : 0);
+        }
+        node >>= Integer.numberOfTrailingZeros(~node) + 1;
+
+        if (node == 0) {
+            return -(size + 1);
+        }
+        return comparator.compare((E) tree[node], key) == 0 ? ranks[node] : -(ranks[node] + 1);
+    }
+
+
+    private int fill(final Object[] sorted, int rank, final int node) {
+        if (node < tree.length) {
+            rank = fill(sorted, rank, 2 * node);
+            tree[node] = sorted[rank];
+            ranks[node] = rank++;
+            rank = fill(sorted, rank, 2 * node + 1);
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,66 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public class IntArraySet extends PrimitiveArraySet<Integer> {
+    private final int[] storage;
+
+    public IntArraySet() {
+        this(new int[0]);
+    }
+
+    public IntArraySet(Collection<Integer> collection) {
+        this(collection.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public IntArraySet(int[] values) {
+        this(sortedDistinct(values), false);
+    }
+
+    private IntArraySet(int[] storage, boolean descending) {
+        this(storage, 0, storage.length, descending);
+    }
+
+    private IntArraySet(int[] storage, int from, int to, boolean descending) {
+        super(from, to, descending);
+        this.storage = storage;
+    }
+
+    public boolean contains(int value) {
+        return containsKey(value);
+    }
+
+    @Override
+    protected long key(int index) {
+        return storage[index];
+    }
+
+    @Override
+    protected long unbox(Object e) {
+        return (Integer) e;
+    }
+
+    @Override
+    protected Integer box(long key) {
+        return (int) key;
+    }
+
+    @Override
+    protected IntArraySet view(int from, int to, boolean descending) {
+        return new IntArraySet(storage, from, to, descending);
+    }
+
+
+    private static int[] sortedDistinct(int[] values) {
+        final int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i != sorted.length; ++i) {
+            if (size == 0 || sorted[size - 1] != sorted[i]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+}
@@ -0,0 +1,66 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public class LongArraySet extends PrimitiveArraySet<Long> {
+    private final long[] storage;
+
+    public LongArraySet() {
+        this(new long[0]);
+    }
+
+    public LongArraySet(Collection<Long> collection) {
+        this(collection.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public LongArraySet(long[] values) {
+        this(sortedDistinct(values), false);
+    }
+
+    private LongArraySet(long[] storage, boolean descending) {
+        this(storage, 0, storage.length, descending);
+    }
+
+    private LongArraySet(long[] storage, int from, int to, boolean descending) {
+        super(from, to, descending);
+        this.storage = storage;
+    }
+
+    public boolean contains(long value) {
+        return containsKey(value);
+    }
+
+    @Override
+    protected long key(int index) {
+        return storage[index];
+    }
+
+    @Override
+    protected long unbox(Object e) {
+        return (Long) e;
+    }
+
+    @Override
+    protected Long box(long key) {
+        return key;
+    }
+
+    @Override
+    protected LongArraySet view(int from, int to, boolean descending) {
+        return new LongArraySet(storage, from, to, descending);
+    }
+
+
+    static long[] sortedDistinct(long[] values) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i != sorted.length; ++i) {
+            if (size == 0 || sorted[size - 1] != sorted[i]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+}
@@ -0,0 +1,214 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+class MappedArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    private final IntFunction<E> decoder;
+    // decoded elements by storage index, filled on first access and shared by all views
+    private final AtomicReferenceArray<E> decoded;
+    private final Comparator<? super E> order;
+    private final Comparator<? super E> comparator;
+    private final int from;
+    private final int to;
+    private final boolean descending;
+
+    MappedArraySet(IntFunction<E> decoder, int size, Comparator<? super E> order) {
+        this(decoder, new AtomicReferenceArray<>(size), order, 0, size, false);
+    }
+
+    private MappedArraySet(IntFunction<E> decoder,
+                           AtomicReferenceArray<E> decoded,
+                           Comparator<? super E> order,
+                           int from,
+                           int to,
+                           boolean descending) {
+        this.decoder = decoder;
+        this.decoded = decoded;
+        this.order = order;
+        this.comparator = descending ? Collections.reverseOrder(order) : order;
+        this.from = from;
+        this.to = to;
+        this.descending = descending;
+    }
+
+    @Override
+    public E lower(E e) {
+        return descending ? itemAt(ascendingHigher(e, false)) : itemAt(ascendingLower(e, false));
+    }
+
+    @Override
+    public E floor(E e) {
+        return descending ? itemAt(ascendingHigher(e, true)) : itemAt(ascendingLower(e, true));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return descending ? itemAt(ascendingLower(e, true)) : itemAt(ascendingHigher(e, true));
+    }
+
+    @Override
+    public E higher(E e) {
+        return descending ? itemAt(ascendingLower(e, false)) : itemAt(ascendingHigher(e, false));
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException("pollFirst() error: MappedArraySet is immutable");
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException("pollLast() error: MappedArraySet is immutable");
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("next() error: iteration has no more elements");
+                }
+                return element(storageIndex(index++));
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new MappedArraySet<>(decoder, decoded, order, from, to, !descending);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement,
+                                  boolean fromInclusive,
+                                  E toElement,
+                                  boolean toInclusive) {
+        if (comparator.compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("Taking subset error: fromElement > toElement");
+        }
+        return descending
+                ? viewOf(ascendingHigher(toElement, toInclusive), ascendingLower(fromElement, fromInclusive) + 1)
+                : viewOf(ascendingHigher(fromElement, fromInclusive), ascendingLower(toElement, toInclusive) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return descending
+                ? viewOf(ascendingHigher(toElement, inclusive), to)
+                : viewOf(from, ascendingLower(toElement, inclusive) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return descending
+                ? viewOf(from, ascendingLower(fromElement, inclusive) + 1)
+                : viewOf(ascendingHigher(fromElement, inclusive), to);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator == Comparator.naturalOrder() ? null : comparator;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public E first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("first() error: MappedArraySet is empty");
+        }
+        return element(storageIndex(0));
+    }
+
+    @Override
+    public E last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("last() error: MappedArraySet is empty");
+        }
+        return element(storageIndex(size() - 1));
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean contains(Object o) {
+        final int index = ascendingHigher((E) o, true);
+        return index < to && order.compare(element(index), (E) o) == 0;
+    }
+
+
+    // racing threads decode equal elements, so publishing either of them is fine
+    private E element(int index) {
+        E element = decoded.getAcquire(index);
+        if (element == null) {
+            element = decoder.apply(index);
+            decoded.setRelease(index, element);
+        }
+        return element;
+    }
+
+    private int storageIndex(int index) {
+        return descending ? to - 1 - index : from + index;
+    }
+
+    private E itemAt(int index) {
+        return from <= index && index < to ? element(index) : null;
+    }
+
+    private NavigableSet<E> viewOf(int fromIndex, int toIndex) {
+        return new MappedArraySet<>(decoder, decoded, order, fromIndex, Math.max(fromIndex, toIndex), descending);
+    }
+
+    // first storage index in [from, to) with element > e (>= if inclusive), or to if there is none
+    private int ascendingHigher(E e, boolean inclusive) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final int cmp = order.compare(element(middle), e);
+            if (cmp < 0 || !inclusive && cmp == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // last storage index in [from, to) with element < e (<= if inclusive), or from - 1 if there is none
+    private int ascendingLower(E e, boolean inclusive) {
+        return ascendingHigher(e, !inclusive) - 1;
+    }
+}
@@ -0,0 +1,203 @@
+package info.kgeorgiy.ja.erov.arrayset;
+
+import java.util.*;
+
+abstract class PrimitiveArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    protected final int from;
+    protected final int to;
+    protected final boolean descending;
+
+    protected PrimitiveArraySet(int from, int to, boolean descending) {
+        this.from = from;
+        this.to = to;
+        this.descending = descending;
+    }
+
+    protected abstract long key(int index);
+
+    protected abstract long unbox(Object e);
+
+    protected abstract E box(long key);
+
+    protected abstract PrimitiveArraySet<E> view(int from, int to, boolean descending);
+
+    @Override
+    public E lower(E e) {
+        return descending ? itemAt(ascendingHigher(unbox(e), false)) : itemAt(ascendingLower(unbox(e), false));
+    }
+
+    @Override
+    public E floor(E e) {
+        return descending ? itemAt(ascendingHigher(unbox(e), true)) : itemAt(ascendingLower(unbox(e), true));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return descending ? itemAt(ascendingLower(unbox(e), true)) : itemAt(ascendingHigher(unbox(e), true));
+    }
+
+    @Override
+    public E higher(E e) {
+        return descending ? itemAt(ascendingLower(unbox(e), false)) : itemAt(ascendingHigher(unbox(e), false));
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException("pollFirst() error: PrimitiveArraySet is immutable");
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException("pollLast() error: PrimitiveArraySet is immutable");
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("next() error: iteration has no more elements");
+                }
+                return box(key(storageIndex(index++)));
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return view(from, to, !descending);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement,
+                                  boolean fromInclusive,
+                                  E toElement,
+                                  boolean toInclusive) {
+        final long fromKey = unbox(fromElement);
+        final long toKey = unbox(toElement);
+        if (descending ? fromKey < toKey : fromKey > toKey) {
+            throw new IllegalArgumentException("Taking subset error: fromElement > toElement");
+        }
+        return descending
+                ? viewOf(ascendingHigher(toKey, toInclusive), ascendingLower(fromKey, fromInclusive) + 1)
+                : viewOf(ascendingHigher(fromKey, fromInclusive), ascendingLower(toKey, toInclusive) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        final long toKey = unbox(toElement);
+        return descending
+                ? viewOf(ascendingHigher(toKey, inclusive), to)
+                : viewOf(from, ascendingLower(toKey, inclusive) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        final long fromKey = unbox(fromElement);
+        return descending
+                ? viewOf(from, ascendingLower(fromKey, inclusive) + 1)
+                : viewOf(ascendingHigher(fromKey, inclusive), to);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public E first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("first() error: PrimitiveArraySet is empty");
+        }
+        return box(key(storageIndex(0)));
+    }
+
+    @Override
+    public E last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("last() error: PrimitiveArraySet is empty");
+        }
+        return box(key(storageIndex(size() - 1)));
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        try {
+            return containsKey(unbox(o));
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        }
+    }
+
+
+    protected boolean containsKey(long key) {
+        final int index = ascendingHigher(key, true);
+        return index < to && key(index) == key;
+    }
+
+    private int storageIndex(int index) {
+        return descending ? to - 1 - index : from + index;
+    }
+
+    private E itemAt(int index) {
+        return from <= index && index < to ? box(key(index)) : null;
+    }
+
+    private NavigableSet<E> viewOf(int fromIndex, int toIndex) {
+        return view(fromIndex, Math.max(fromIndex, toIndex), descending);
+    }
+
+    // first storage index in [from, to) with key(index) > key (>= if inclusive), or to if there is none
+    private int ascendingHigher(long key, boolean inclusive) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final long middleKey = key(middle);
+            if (middleKey < key || !inclusive && middleKey == key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // last storage index in [from, to) with key(index) < key (<= if inclusive), or from - 1 if there is none
+    private int ascendingLower(long key, boolean inclusive) {
+        return ascendingHigher(key, !inclusive) - 1;
+    }
+}
@@ -0,0 +1,32 @@
+package info.kgeorgiy.ja.erov.concurrent;
+
+/**
+ * A bounded thread-safe queue with blocking insertion and retrieval.
+ * @param <T> type of elements to be queued
+ */
+public interface BoundedQueue<T> {
+    /**
+     * Inserts the specified element at the tail of this queue, waiting for free space if the queue is full.
+     *
+     * @param item the element to add
+     * @throws InterruptedException if any thread interrupted the current thread
+     *                              before or while the current thread was waiting
+     */
+    void add(T item) throws InterruptedException;
+
+    /**
+     * Retrieves and removes the head of this queue, waiting for an element if the queue is empty.
+     *
+     * @return the head of this queue
+     * @throws InterruptedException if any thread interrupted the current thread
+     *                              before or while the current thread was waiting
+     */
+    T poll() throws InterruptedException;
+
+    /**
+     * Determine if there are no elements in this queue.
+     *
+     * @return {@code true} if this queue contains no elements
+     */
+    boolean isEmpty();
+}
@@ -0,0 +1,116 @@
+package info.kgeorgiy.ja.erov.concurrent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free collector of values by index, allowing one waiting thread to get them
+ * when all indices are completed, that is set or skipped.
+ * <p>
+ * Values are stored into a plain array and completions are counted down by a single atomic counter,
+ * so writers never block; the waiting thread is parked once and unparked by the last completion.
+ * Any value, including {@code null}, may be stored, and an index may be overwritten until it is completed.
+ *
+ * @param <T> value type
+ */
+public class CollectingLatch<T> {
+    private final Object[] values;
+    private final AtomicInteger pending;
+    private volatile Thread waiter;
+
+    /**
+     * Create latch collecting given amount of values.
+     * @param size number of values to collect
+     */
+    public CollectingLatch(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size of latch must be a non-negative integer");
+        }
+        this.values = new Object[size];
+        this.pending = new AtomicInteger(size);
+    }
+
+    /**
+     * Returns number of values to collect.
+     *
+     * @return size of the collected list
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Stores value at the specified position without completing it.
+     * The value becomes visible to the waiting thread once its index is counted by {@link #complete(int)}.
+     *
+     * @param index position of the value
+     * @param value value to be stored at the specified position
+     */
+    public void put(final int index, final T value) {
+        values[index] = value;
+    }
+
+    /**
+     * Stores value at the specified position and completes it.
+     *
+     * @param index position of the value
+     * @param value value to be stored at the specified position
+     */
+    public void set(final int index, final T value) {
+        values[index] = value;
+        complete(1);
+    }
+
+    /**
+     * Completes one index without storing a value, leaving it {@code null}.
+     */
+    public void skip() {
+        complete(1);
+    }
+
+    /**
+     * Completes given amount of indices, whose values, if any, were stored by {@link #put}.
+     *
+     * @param count number of completed indices
+     * @throws IllegalStateException if more indices are completed than collected
+     */
+    public void complete(final int count) {
+        final int left = pending.addAndGet(-count);
+        if (left == 0) {
+            final Thread thread = waiter;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        } else if (left < 0) {
+            throw new IllegalStateException("Completed more indices than collected");
+        }
+    }
+
+    /**
+     * Provides collected values when all indices are completed.
+     * Only one thread may wait at a time.
+     *
+     * @return collected list
+     * @throws InterruptedException if any thread interrupted the current thread
+     *                              before or while the current thread was waiting
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getList() throws InterruptedException {
+        if (pending.get() != 0) {
+            waiter = Thread.currentThread();
+            try {
+                while (pending.get() != 0) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    LockSupport.park(this);
+                }
+            } finally {
+                waiter = null;
+            }
+        }
+        return (List<T>) Arrays.asList(values);
+    }
+}
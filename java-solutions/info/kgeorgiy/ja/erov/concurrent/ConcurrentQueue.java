@@ -7,7 +7,7 @@ import java.util.Queue;
  * A bounded thread-safe wrapper for {@link Queue}.
  * @param <T> type of elements to be queued
  */
-public class ConcurrentQueue<T> {
+public class ConcurrentQueue<T> implements BoundedQueue<T> {
     private final Queue<T> queue;
     private final int maxSize;
 
@@ -28,6 +28,7 @@ public class ConcurrentQueue<T> {
      * @throws InterruptedException if any thread interrupted the current thread
      *                              before or while the current thread was waiting
      */
+    @Override
     public synchronized void add(final T item) throws InterruptedException {
         while (queue.size() == maxSize) {
             wait();
@@ -44,6 +45,7 @@ public class ConcurrentQueue<T> {
      * @throws InterruptedException if any thread interrupted the current thread
      *                              before or while the current thread was waiting
      */
+    @Override
     public synchronized T poll() throws InterruptedException {
         while (queue.isEmpty()) {
             wait();
@@ -58,6 +60,7 @@ public class ConcurrentQueue<T> {
      *
      * @return {@code true} if this collection contains no elements
      */
+    @Override
     public synchronized boolean isEmpty() {
         return queue.isEmpty();
     }
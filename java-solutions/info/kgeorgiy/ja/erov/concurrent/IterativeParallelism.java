@@ -4,10 +4,15 @@ import info.kgeorgiy.java.advanced.concurrent.AdvancedIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -18,6 +23,8 @@ public class IterativeParallelism implements AdvancedIP {
 
     /**
      * Default constructor.
+     * Instances created this way run blocks on a lazily created pool of daemon threads shared by all of them,
+     * which reuses idle threads and lets them expire when unused.
      */
     public IterativeParallelism() {
         this.parallelMapper = null;
@@ -46,17 +53,36 @@ public class IterativeParallelism implements AdvancedIP {
         return maximum(threads, values, comparator.reversed());
     }
 
+    /**
+     * The first counterexample found in any block stops scanning of all other blocks.
+     * @param <T> value type
+     */
     @Override
     public <T> boolean all(final int threads, final List<? extends T> values, final Predicate<? super T> predicate)
             throws InterruptedException {
+        final AtomicBoolean counterexampleFound = new AtomicBoolean();
+        final Predicate<T> matches = value -> {
+            if (counterexampleFound.get()) {
+                return false;
+            }
+            if (predicate.test(value)) {
+                return true;
+            }
+            counterexampleFound.set(true);
+            return false;
+        };
         return apply(
                 threads,
                 values,
-                stream -> stream.allMatch(predicate),
+                stream -> stream.allMatch(matches),
                 stream -> stream.allMatch(Boolean::booleanValue)
         );
     }
 
+    /**
+     * The first matching value found in any block stops scanning of all other blocks.
+     * @param <T> value type
+     */
     @Override
     public <T> boolean any(final int threads, final List<? extends T> values, final Predicate<? super T> predicate)
             throws InterruptedException {
@@ -183,33 +209,35 @@ public class IterativeParallelism implements AdvancedIP {
             final Function<Stream<T>, R> subListHandler,
             final List<Stream<T>> subListStreams) throws InterruptedException {
 
-        final int threads = subListStreams.size();
-        final List<R> results = new ArrayList<>(Collections.nCopies(threads, null));
-
-        final List<Thread> threadPool = IntStream.range(0, threads)
-                .mapToObj(
-                        i -> new Thread(
-                                () -> results.set(i, subListHandler.apply(subListStreams.get(i)))
-                        )
-                )
-                .toList();
-
-        for (Thread thread : threadPool) {
-            thread.start();
+        final CountDownLatch remaining = new CountDownLatch(subListStreams.size());
+        final List<FutureTask<R>> blocks = new ArrayList<>();
+        for (final Stream<T> subListStream : subListStreams) {
+            final FutureTask<R> block = new FutureTask<>(() -> subListHandler.apply(subListStream));
+            blocks.add(block);
+            // run() returns once the handler has stopped, even if cancelled while running, or at once if cancelled before
+            SharedPool.EXECUTOR.execute(() -> {
+                try {
+                    block.run();
+                } finally {
+                    remaining.countDown();
+                }
+            });
         }
 
         InterruptedException exception = null;
-        for (int i = 0; i != threads; ++i) {
+        while (true) {
             try {
-                threadPool.get(i).join();
+                remaining.await();
+                break;
             } catch (final InterruptedException e) {
                 if (exception == null) {
                     exception = e;
-                    threadPool.get(i).interrupt();
+                    for (FutureTask<R> block : blocks) {
+                        block.cancel(true);
+                    }
                 } else {
                     exception.addSuppressed(e);
                 }
-                --i;
             }
         }
 
@@ -217,6 +245,39 @@ public class IterativeParallelism implements AdvancedIP {
             throw exception;
         }
 
+        final List<R> results = new ArrayList<>();
+        RuntimeException failure = null;
+        for (FutureTask<R> block : blocks) {
+            try {
+                results.add(block.get());
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                final RuntimeException cause = (RuntimeException) e.getCause();
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
         return results;
     }
+
+    /**
+     * Daemon worker threads shared by instances without {@link ParallelMapper}, created on first use.
+     */
+    private static final class SharedPool {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
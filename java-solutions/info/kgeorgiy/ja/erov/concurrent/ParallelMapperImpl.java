@@ -2,16 +2,34 @@ package info.kgeorgiy.ja.erov.concurrent;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * {@link ParallelMapper} implementation using first-in-first-out queued order for parallel execution.
  */
 public class ParallelMapperImpl implements ParallelMapper {
-    private final ConcurrentQueue<Runnable> tasks;
+    private final static int QUEUE_CAPACITY = 1 << 16;
+    private final static int CHUNKS_PER_THREAD = 4;
+    private final BoundedQueue<Runnable> tasks;
     private final List<Thread> threadPool;
+    private final boolean failFast;
+    private volatile boolean closed;
     private int activeCalls;
 
     /**
@@ -19,19 +37,47 @@ public class ParallelMapperImpl implements ParallelMapper {
      * @param threads maximum number of threads to use
      */
     public ParallelMapperImpl(final int threads) {
+        this(threads, new ConcurrentQueue<>(QUEUE_CAPACITY));
+    }
+
+    /**
+     * Create instance with given amount of {@link Thread} taking tasks from the given queue,
+     * for example {@link RingBufferQueue} for many workers and small tasks.
+     * @param threads maximum number of threads to use
+     * @param tasks empty queue for scheduled tasks, owned by this instance afterwards
+     */
+    public ParallelMapperImpl(final int threads, final BoundedQueue<Runnable> tasks) {
+        this(threads, tasks, false);
+    }
+
+    /**
+     * Create instance with given amount of {@link Thread} taking tasks from the given queue.
+     * In fail-fast mode the first exception thrown by the function cancels the rest of its {@link #map} call:
+     * remaining arguments of the call are skipped and workers still mapping it are interrupted.
+     * Other calls are not affected.
+     * @param threads maximum number of threads to use
+     * @param tasks empty queue for scheduled tasks, owned by this instance afterwards
+     * @param failFast whether the first failure cancels the rest of its call
+     */
+    public ParallelMapperImpl(final int threads, final BoundedQueue<Runnable> tasks, final boolean failFast) {
         if (threads < 0) {
             throw new IllegalArgumentException("threads amount must be a positive integer");
         }
+        if (tasks == null) {
+            throw new NullPointerException("Task queue must be non-null");
+        }
 
-        tasks = new ConcurrentQueue<>(1 << 16);
+        this.tasks = tasks;
+        this.failFast = failFast;
 
+        // cancelled calls may clear interruptions of workers, so shutdown is also signalled by the flag
         final Runnable handler = () -> {
-            try {
-                while (!Thread.interrupted()) {
+            while (!closed) {
+                try {
                     tasks.poll().run();
+                } catch (InterruptedException e) {
+                    // recheck closed
                 }
-            } catch (InterruptedException e) {
-                // ignore
             }
         };
 
@@ -63,61 +109,57 @@ public class ParallelMapperImpl implements ParallelMapper {
             throw new NullPointerException("List for mapping must be non-null");
         }
 
-        boolean validState = true;
-        synchronized (this) {
-            if (activeCalls == -1) {
-                validState = false;
-            } else {
-                ++activeCalls;
+        startCall();
+        try {
+            final ChunkedMapping<T, R> mapping = new ChunkedMapping<>(f, args, threadPool.size(), failFast);
+            for (int i = 0; i != mapping.runners(); ++i) {
+                tasks.add(mapping);
             }
+            return mapping.await();
+        } finally {
+            finishCall();
         }
+    }
 
-        if (!validState) {
-            throw new IllegalStateException("Cannot apply mapping on closed instance");
-        }
-
-        final ConcurrentCollectingList<R> result = new ConcurrentCollectingList<>(args.size());
-        final ConcurrentQueue<RuntimeException> runtimeExceptions = new ConcurrentQueue<>(args.size());
-
-        // :NOTE: IntStream
-        final List<Runnable> workingTasks = IntStream.range(0, args.size())
-                .mapToObj(
-                        i -> (Runnable) () -> {
-                            try {
-                                result.set(i, f.apply(args.get(i)));
-                            } catch (RuntimeException e) {
-                                result.skip();
-                                try {
-                                    runtimeExceptions.add(e);
-                                } catch (InterruptedException ex) {
-                                    // ignore
-                                }
-                            }
-                        }
-                )
-                .toList();
-
-        for (Runnable task : workingTasks) {
-            tasks.add(task);
+    /**
+     * Lazily maps arguments of the given stream, yielding results in order of arguments while others are mapped.
+     * <p>
+     * At most {@code window} arguments are taken from {@code args} ahead of the consumer,
+     * so an unbounded stream is mapped in bounded memory.
+     * Exception thrown by the function for an argument is rethrown when its result is reached, ending the stream.
+     * <p>
+     * The returned stream counts as an active call until it is exhausted, fails or is closed.
+     * It must be closed, for example by try-with-resources, as short-circuiting terminal operations leave it unfinished.
+     * Closing it early skips arguments queued but not mapped yet.
+     *
+     * @param f function to apply
+     * @param args stream of arguments
+     * @param window maximum number of arguments mapped or buffered at once
+     * @param <T> value type
+     * @param <R> mapped value type
+     * @return sequential stream of mapped values
+     * @throws IllegalStateException if method calls after {@link #close()},
+     *                               or the consumer is interrupted while waiting for a result
+     */
+    public <T, R> Stream<R> mapStream(
+            final Function<? super T, ? extends R> f,
+            final Stream<? extends T> args,
+            final int window) {
+        if (f == null) {
+            throw new NullPointerException("Function for mapping must be non-null");
         }
-
-        // :NOTE: Бесконечное ожидание
-        // fixed - call ConcurrentCollectingList#skip() in indices where RuntimeException was thrown
-        final List<R> mappedValues = result.getList();
-
-        if (!runtimeExceptions.isEmpty()) {
-            final RuntimeException exceptions = runtimeExceptions.poll();
-            while (!runtimeExceptions.isEmpty()) {
-                exceptions.addSuppressed(runtimeExceptions.poll());
-            }
-            throw exceptions;
+        if (args == null) {
+            throw new NullPointerException("Stream for mapping must be non-null");
         }
-
-        synchronized (this) {
-            --activeCalls;
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be a positive integer");
         }
 
-        return mappedValues;
+        startCall();
+        final StreamingMapping<T, R> mapping = new StreamingMapping<>(f, args.iterator(), window);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(mapping, Spliterator.ORDERED), false)
+                .onClose(mapping::finish)
+                .onClose(args::close);
     }
 
     @Override
@@ -127,17 +169,18 @@ public class ParallelMapperImpl implements ParallelMapper {
         synchronized (this) {
             if (activeCalls > 0) {
                 validState = false;
-            }
-            if (activeCalls == -1) {
+            } else if (activeCalls == -1) {
                 return;
+            } else {
+                activeCalls = -1;
             }
-            activeCalls = -1;
         }
 
         if (!validState) {
             throw new IllegalStateException("Cannot close ParallelMapperImpl while there are some active tasks");
         }
 
+        closed = true;
         for (Thread thread : threadPool) {
             thread.interrupt();
         }
@@ -150,4 +193,267 @@ public class ParallelMapperImpl implements ParallelMapper {
             }
         }
     }
+
+    private synchronized void startCall() {
+        if (activeCalls == -1) {
+            throw new IllegalStateException("Cannot apply mapping on closed instance");
+        }
+        ++activeCalls;
+    }
+
+    private synchronized void finishCall() {
+        --activeCalls;
+    }
+
+    /**
+     * Single {@link #mapStream} call: a consumer-driven iterator keeping up to {@code window} arguments
+     * queued for mapping ahead of the result returned next.
+     */
+    private final class StreamingMapping<T, R> implements Iterator<R> {
+        private final Function<? super T, ? extends R> f;
+        private final Iterator<? extends T> args;
+        private final int window;
+        private final Queue<MappedValue<T, R>> pending = new ArrayDeque<>();
+        private boolean finished;
+
+        StreamingMapping(final Function<? super T, ? extends R> f, final Iterator<? extends T> args, final int window) {
+            this.f = f;
+            this.args = args;
+            this.window = window;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            if (pending.isEmpty()) {
+                finish();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more mapped values");
+            }
+            final MappedValue<T, R> value = pending.remove();
+            fill();
+            try {
+                return value.get();
+            } catch (InterruptedException e) {
+                finish();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for mapped value", e);
+            } catch (RuntimeException | Error e) {
+                finish();
+                throw e;
+            }
+        }
+
+        private void fill() {
+            try {
+                while (!finished && pending.size() < window && args.hasNext()) {
+                    final MappedValue<T, R> value = new MappedValue<>(f, args.next());
+                    try {
+                        tasks.add(value);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while submitting argument for mapping", e);
+                    }
+                    pending.add(value);
+                }
+            } catch (RuntimeException | Error e) {
+                finish();
+                throw e;
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                for (MappedValue<T, R> value : pending) {
+                    value.cancel();
+                }
+                pending.clear();
+                finishCall();
+            }
+        }
+    }
+
+    /**
+     * Task mapping a single argument, whose result may be awaited.
+     * A cancelled task is left in the queue and skips the function when taken.
+     */
+    private static final class MappedValue<T, R> implements Runnable {
+        private final Function<? super T, ? extends R> f;
+        private T arg;
+        private R result;
+        private Throwable exception;
+        private boolean done;
+        private volatile boolean cancelled;
+
+        MappedValue(final Function<? super T, ? extends R> f, final T arg) {
+            this.f = f;
+            this.arg = arg;
+        }
+
+        @Override
+        public void run() {
+            R value = null;
+            Throwable error = null;
+            try {
+                if (!cancelled) {
+                    value = f.apply(arg);
+                }
+            } catch (RuntimeException | Error e) {
+                error = e;
+            } finally {
+                synchronized (this) {
+                    arg = null;
+                    result = value;
+                    exception = error;
+                    done = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized R get() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+            if (exception instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (exception instanceof Error error) {
+                throw error;
+            }
+            return result;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Single {@link #map} call split into contiguous ranges of arguments.
+     * Every queued copy of this task claims ranges through a shared cursor until none are left,
+     * and writes results straight into a {@link CollectingLatch}, completing whole ranges at once.
+     * In fail-fast mode the first failure makes every copy skip the ranges left,
+     * and interrupts the workers mapping ranges of this call at that moment.
+     */
+    private static final class ChunkedMapping<T, R> implements Runnable {
+        private final Function<? super T, ? extends R> f;
+        private final List<? extends T> args;
+        private final CollectingLatch<R> results;
+        private final int chunkSize;
+        private final int runners;
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+        private final boolean failFast;
+        private final Set<Thread> mappingThreads = new HashSet<>();
+        private volatile boolean failed;
+
+        ChunkedMapping(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                       final int threads, final boolean failFast) {
+            this.f = f;
+            this.failFast = failFast;
+            this.args = args instanceof RandomAccess ? args : new ArrayList<>(args);
+            this.results = new CollectingLatch<>(args.size());
+            final int size = results.size();
+            final int chunks = Math.max(1, Math.min(size, threads * CHUNKS_PER_THREAD));
+            this.chunkSize = (size + chunks - 1) / chunks;
+            this.runners = Math.min(threads, size == 0 ? 0 : (size + chunkSize - 1) / chunkSize);
+        }
+
+        int runners() {
+            return runners;
+        }
+
+        @Override
+        public void run() {
+            int from;
+            while ((from = cursor.getAndAdd(chunkSize)) < results.size()) {
+                final int to = Math.min(from + chunkSize, results.size());
+                try {
+                    if (failFast) {
+                        mapFailFast(from, to);
+                    } else {
+                        mapRange(from, to);
+                    }
+                } finally {
+                    results.complete(to - from);
+                }
+            }
+        }
+
+        private void mapRange(final int from, final int to) {
+            for (int i = from; i != to; ++i) {
+                try {
+                    results.put(i, f.apply(args.get(i)));
+                } catch (RuntimeException | Error e) {
+                    exceptions.add(e);
+                }
+            }
+        }
+
+        private void mapFailFast(final int from, final int to) {
+            final Thread current = Thread.currentThread();
+            synchronized (mappingThreads) {
+                if (failed) {
+                    return;
+                }
+                mappingThreads.add(current);
+            }
+            try {
+                for (int i = from; i != to && !failed; ++i) {
+                    try {
+                        results.put(i, f.apply(args.get(i)));
+                    } catch (RuntimeException | Error e) {
+                        exceptions.add(e);
+                        fail(current);
+                    }
+                }
+            } finally {
+                synchronized (mappingThreads) {
+                    mappingThreads.remove(current);
+                    if (failed) {
+                        // drop the cancellation interrupt before taking the next task
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        private void fail(final Thread current) {
+            synchronized (mappingThreads) {
+                if (failed) {
+                    return;
+                }
+                failed = true;
+                for (Thread thread : mappingThreads) {
+                    if (thread != current) {
+                        thread.interrupt();
+                    }
+                }
+            }
+        }
+
+        List<R> await() throws InterruptedException {
+            final List<R> list = results.getList();
+            final Throwable exception = exceptions.poll();
+            if (exception != null) {
+                for (Throwable suppressed : exceptions) {
+                    exception.addSuppressed(suppressed);
+                }
+                if (exception instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) exception;
+            }
+            return list;
+        }
+    }
 }
@@ -0,0 +1,176 @@
+package info.kgeorgiy.ja.erov.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A lock-free bounded multi-producer multi-consumer queue over a ring buffer (Dmitry Vyukov's algorithm).
+ * <p>
+ * Every cell carries a sequence number telling whether it is ready to be written or read at a given position,
+ * so producers and consumers only compete on a single CAS of their own position counter.
+ * Blocked threads spin for a short while and then park; each insertion or removal wakes at most one of them.
+ *
+ * @param <T> type of elements to be queued
+ */
+public class RingBufferQueue<T> implements BoundedQueue<T> {
+    private final static int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+    private final Waiters producers = new Waiters();
+    private final Waiters consumers = new Waiters();
+
+    /**
+     * Creates a queue holding at least {@code capacity} elements.
+     * Capacity is rounded up to a power of two.
+     *
+     * @param capacity minimal capacity of queue
+     */
+    public RingBufferQueue(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be a positive integer not greater than 2^30");
+        }
+        final int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i != size; ++i) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if there is free space.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added, {@code false} if this queue is full
+     */
+    public boolean offer(final T item) {
+        Objects.requireNonNull(item, "RingBufferQueue does not permit null elements");
+        long position = enqueuePosition.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer[index] = item;
+                    sequences.set(index, position + 1);
+                    consumers.signal();
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the head of this queue if there is any.
+     *
+     * @return the head of this queue or {@code null} if this queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T tryPoll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    final T item = (T) buffer[index];
+                    buffer[index] = null;
+                    sequences.set(index, position + buffer.length);
+                    producers.signal();
+                    return item;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Override
+    public void add(final T item) throws InterruptedException {
+        await(producers, () -> offer(item) ? Boolean.TRUE : null);
+    }
+
+    @Override
+    public T poll() throws InterruptedException {
+        return await(consumers, this::tryPoll);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final long position = dequeuePosition.get();
+        return sequences.get((int) position & mask) - (position + 1) < 0;
+    }
+
+
+    private static <R> R await(final Waiters waiters, final Supplier<R> attempt) throws InterruptedException {
+        for (int i = 0; i != SPINS; ++i) {
+            final R result = attempt.get();
+            if (result != null) {
+                return result;
+            }
+            Thread.onSpinWait();
+        }
+        return waiters.await(attempt);
+    }
+
+    /**
+     * Parked threads waiting for the same condition.
+     * A thread registers itself before its last check, so a signal sent after the condition changed is never lost;
+     * a thread that got a signal it no longer needs passes it on.
+     */
+    private static final class Waiters {
+        private final ConcurrentLinkedQueue<Thread> threads = new ConcurrentLinkedQueue<>();
+
+        void signal() {
+            if (!threads.isEmpty()) {
+                final Thread thread = threads.poll();
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+            }
+        }
+
+        <R> R await(final Supplier<R> attempt) throws InterruptedException {
+            final Thread current = Thread.currentThread();
+            while (true) {
+                threads.add(current);
+                final R result = attempt.get();
+                if (result == null && !current.isInterrupted()) {
+                    LockSupport.park(this);
+                }
+                final boolean signalled = !threads.remove(current);
+                if (result != null) {
+                    if (signalled) {
+                        signal();
+                    }
+                    return result;
+                }
+                if (Thread.interrupted()) {
+                    if (signalled) {
+                        signal();
+                    }
+                    throw new InterruptedException();
+                }
+            }
+        }
+    }
+}
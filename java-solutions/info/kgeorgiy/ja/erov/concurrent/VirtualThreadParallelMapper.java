@@ -0,0 +1,250 @@
+package info.kgeorgiy.ja.erov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link ParallelMapper} implementation running every function call in its own thread,
+ * for functions that spend most of their time blocked, for example on I/O.
+ * <p>
+ * Threads are virtual when the runtime supports them. Otherwise calls run in a cached pool of platform threads
+ * holding at most as many threads as calls may run at once.
+ * The number of calls running at once is limited by a concurrency bound shared by all {@link #map} calls.
+ */
+public class VirtualThreadParallelMapper implements ParallelMapper {
+    private final static long KEEP_ALIVE_SECONDS = 60;
+    private final static ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+    private final Semaphore permits;
+    private final Executor executor;
+    private final ExecutorService pool;
+    private int activeCalls;
+
+    /**
+     * Create instance running at most given amount of function calls at once in virtual threads,
+     * or in a pool of platform threads if virtual ones are not supported.
+     * @param concurrency maximum number of simultaneous function calls
+     */
+    public VirtualThreadParallelMapper(final int concurrency) {
+        this(permits(concurrency), VIRTUAL_THREADS, VIRTUAL_THREADS == null ? cachedPool(concurrency) : null);
+    }
+
+    /**
+     * Create instance running at most given amount of function calls at once in threads of the given factory.
+     * @param concurrency maximum number of simultaneous function calls
+     * @param factory factory of threads for function calls
+     */
+    public VirtualThreadParallelMapper(final int concurrency, final ThreadFactory factory) {
+        this(permits(concurrency), nonNull(factory), null);
+    }
+
+    private VirtualThreadParallelMapper(final Semaphore permits, final ThreadFactory factory, final ExecutorService pool) {
+        this.permits = permits;
+        this.pool = pool;
+        this.executor = pool != null ? pool : command -> factory.newThread(command).start();
+        activeCalls = 0;
+    }
+
+    /**
+     * If the current thread is interrupted, calls of this mapping already running are interrupted
+     * and waited for, and calls not yet started are skipped, before {@link InterruptedException} is thrown.
+     *
+     * @param <T> value type
+     * @param <R> mapped value type
+     * @throws RuntimeException if any exception occurs in the mapping runtime
+     * @throws Error if any error occurs in the mapping runtime
+     * @throws IllegalStateException if method calls after {@link #close()}
+     */
+    @Override
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        if (f == null) {
+            throw new NullPointerException("Function for mapping must be non-null");
+        }
+        if (args == null) {
+            throw new NullPointerException("List for mapping must be non-null");
+        }
+
+        synchronized (this) {
+            if (activeCalls == -1) {
+                throw new IllegalStateException("Cannot apply mapping on closed instance");
+            }
+            ++activeCalls;
+        }
+
+        try {
+            final Mapping<T, R> mapping = new Mapping<>(f, args);
+            int submitted = 0;
+            try {
+                for (; submitted != mapping.results.size(); ++submitted) {
+                    permits.acquire();
+                    final int index = submitted;
+                    executor.execute(() -> {
+                        try {
+                            mapping.apply(index);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                return mapping.await();
+            } catch (InterruptedException e) {
+                mapping.cancel(mapping.results.size() - submitted, e);
+                throw e;
+            }
+        } finally {
+            synchronized (this) {
+                --activeCalls;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (activeCalls == -1) {
+                return;
+            }
+            if (activeCalls > 0) {
+                throw new IllegalStateException("Cannot close VirtualThreadParallelMapper while there are some active tasks");
+            }
+            activeCalls = -1;
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static Semaphore permits(final int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be a positive integer");
+        }
+        return new Semaphore(concurrency);
+    }
+
+    private static ThreadFactory nonNull(final ThreadFactory factory) {
+        if (factory == null) {
+            throw new NullPointerException("Thread factory must be non-null");
+        }
+        return factory;
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().factory()} reflectively, so the class still runs on runtimes without it.
+     * @return factory of virtual threads, or {@code null} if they are not supported
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // permits keep at most concurrency calls submitted, so the pool never queues behind busy threads for long
+    private static ExecutorService cachedPool(final int concurrency) {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                concurrency, concurrency, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Single {@link #map} call. Only threads running its function calls at the moment are tracked,
+     * so cancellation interrupts them and no thread that has already moved on.
+     */
+    private static final class Mapping<T, R> {
+        private final Function<? super T, ? extends R> f;
+        private final List<? extends T> args;
+        private final CollectingLatch<R> results;
+        private final ConcurrentLinkedQueue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+        private final Set<Thread> running = new HashSet<>();
+        private boolean cancelled;
+
+        Mapping(final Function<? super T, ? extends R> f, final List<? extends T> args) {
+            this.f = f;
+            this.args = args instanceof RandomAccess ? args : new ArrayList<>(args);
+            this.results = new CollectingLatch<>(args.size());
+        }
+
+        void apply(final int index) {
+            final Thread current = Thread.currentThread();
+            synchronized (running) {
+                if (cancelled) {
+                    results.complete(1);
+                    return;
+                }
+                running.add(current);
+            }
+            try {
+                results.put(index, f.apply(args.get(index)));
+            } catch (Throwable e) {
+                exceptions.add(e);
+            } finally {
+                synchronized (running) {
+                    running.remove(current);
+                    if (cancelled) {
+                        // drop the cancellation interrupt before a pool thread takes the next task
+                        Thread.interrupted();
+                    }
+                }
+                results.complete(1);
+            }
+        }
+
+        void cancel(final int unsubmitted, final InterruptedException exception) {
+            synchronized (running) {
+                cancelled = true;
+                for (Thread thread : running) {
+                    thread.interrupt();
+                }
+            }
+            results.complete(unsubmitted);
+            while (true) {
+                try {
+                    results.getList();
+                    return;
+                } catch (InterruptedException e) {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+
+        List<R> await() throws InterruptedException {
+            final List<R> list = results.getList();
+            final Throwable exception = exceptions.poll();
+            if (exception != null) {
+                for (Throwable suppressed : exceptions) {
+                    exception.addSuppressed(suppressed);
+                }
+                if (exception instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (exception instanceof Error error) {
+                    throw error;
+                }
+                throw new UndeclaredThrowableException(exception);
+            }
+            return list;
+        }
+    }
+}
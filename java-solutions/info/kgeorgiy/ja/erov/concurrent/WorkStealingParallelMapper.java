@@ -0,0 +1,180 @@
+package info.kgeorgiy.ja.erov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link ParallelMapper} implementation using per-worker deques with work stealing.
+ * <p>
+ * Argument ranges are split in halves on demand: a worker keeps forking the right half of its remaining range
+ * while there are few queued tasks to steal, so idle threads take over parts of slow ranges
+ * even when element costs are very uneven.
+ */
+public class WorkStealingParallelMapper implements ParallelMapper {
+    private final static int SURPLUS_TASKS = 2;
+    private final ForkJoinPool pool;
+    private int activeCalls;
+
+    /**
+     * Create instance with given amount of worker threads.
+     * @param threads maximum number of threads to use
+     */
+    public WorkStealingParallelMapper(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads amount must be a positive integer");
+        }
+        pool = new ForkJoinPool(threads);
+        activeCalls = 0;
+    }
+
+    /**
+     * @param <T> value type
+     * @param <R> mapped value type
+     * @throws RuntimeException if any exception occurs in the mapping runtime
+     * @throws IllegalStateException if method calls after {@link #close()}
+     */
+    @Override
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        if (f == null) {
+            throw new NullPointerException("Function for mapping must be non-null");
+        }
+        if (args == null) {
+            throw new NullPointerException("List for mapping must be non-null");
+        }
+
+        synchronized (this) {
+            if (activeCalls == -1) {
+                throw new IllegalStateException("Cannot apply mapping on closed instance");
+            }
+            ++activeCalls;
+        }
+
+        try {
+            final Mapping<T, R> mapping = new Mapping<>(f, args);
+            try {
+                pool.submit(new RangeTask<>(mapping, 0, mapping.results.length, null)).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Unexpected mapping failure", e.getCause());
+            }
+            return mapping.collect();
+        } finally {
+            synchronized (this) {
+                --activeCalls;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (activeCalls == -1) {
+                return;
+            }
+            if (activeCalls > 0) {
+                throw new IllegalStateException("Cannot close WorkStealingParallelMapper while there are some active tasks");
+            }
+            activeCalls = -1;
+        }
+
+        pool.shutdownNow();
+        while (true) {
+            try {
+                if (pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                // wait for workers anyway
+            }
+        }
+    }
+
+
+    private static final class Mapping<T, R> {
+        private final Function<? super T, ? extends R> f;
+        private final List<? extends T> args;
+        private final Object[] results;
+        private final ConcurrentLinkedQueue<RuntimeException> exceptions = new ConcurrentLinkedQueue<>();
+
+        Mapping(final Function<? super T, ? extends R> f, final List<? extends T> args) {
+            this.f = f;
+            this.args = args instanceof RandomAccess ? args : new ArrayList<>(args);
+            this.results = new Object[args.size()];
+        }
+
+        void apply(final int index) {
+            try {
+                results[index] = f.apply(args.get(index));
+            } catch (RuntimeException e) {
+                exceptions.add(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> collect() {
+            final RuntimeException exception = exceptions.poll();
+            if (exception != null) {
+                for (RuntimeException suppressed : exceptions) {
+                    exception.addSuppressed(suppressed);
+                }
+                throw exception;
+            }
+            return (List<R>) Arrays.asList(results);
+        }
+    }
+
+    /**
+     * Maps {@code [from, to)}, forking right halves while other workers may run out of work.
+     * Forked halves are chained through {@code next} to be joined, or run in place if nobody stole them.
+     */
+    private static final class RangeTask<T, R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Mapping<T, R> mapping;
+        private final int from;
+        private final int to;
+        private final RangeTask<T, R> next;
+
+        RangeTask(final Mapping<T, R> mapping, final int from, final int to, final RangeTask<T, R> next) {
+            this.mapping = mapping;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            int current = from;
+            int end = to;
+            RangeTask<T, R> forked = null;
+            while (current < end) {
+                while (end - current > 1 && getSurplusQueuedTaskCount() <= SURPLUS_TASKS) {
+                    final int middle = (current + end) >>> 1;
+                    forked = new RangeTask<>(mapping, middle, end, forked);
+                    forked.fork();
+                    end = middle;
+                }
+                mapping.apply(current++);
+            }
+            for (; forked != null; forked = forked.next) {
+                if (forked.tryUnfork()) {
+                    forked.compute();
+                } else {
+                    forked.join();
+                }
+            }
+        }
+    }
+}
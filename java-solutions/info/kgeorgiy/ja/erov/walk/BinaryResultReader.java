@@ -0,0 +1,70 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+public class BinaryResultReader implements AutoCloseable {
+    private final DataInputStream input;
+    private final String algorithm;
+    private final byte[] hash;
+    private String file;
+
+    public BinaryResultReader(FileChannel channel) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        try {
+            if (input.readInt() != BinaryResultWriter.MAGIC) {
+                throw new IOException("not a binary walk output file");
+            }
+            this.algorithm = new String(readBytes(input.readInt()), StandardCharsets.UTF_8);
+            final int hashLength = input.readInt();
+            if (hashLength < 0) {
+                throw new IOException("corrupted binary walk output file");
+            }
+            this.hash = new byte[hashLength];
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public String algorithm() {
+        return algorithm;
+    }
+
+    public boolean next() throws IOException {
+        final int length;
+        try {
+            length = input.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        file = new String(readBytes(length), StandardCharsets.UTF_8);
+        input.readFully(hash);
+        return true;
+    }
+
+    public String file() {
+        return file;
+    }
+
+    public byte[] hash() {
+        return hash;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+
+    private byte[] readBytes(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("corrupted binary walk output file");
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+}
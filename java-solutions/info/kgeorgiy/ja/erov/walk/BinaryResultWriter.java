@@ -0,0 +1,86 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+public class BinaryResultWriter implements ResultWriter {
+    final static int MAGIC = 0x57414c42;
+    private final static int BUFFER_SIZE = 1 << 20;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private final int hashLength;
+
+    public BinaryResultWriter(FileChannel channel, String algorithm, int hashLength) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.hashLength = hashLength;
+
+        final byte[] name = algorithm.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(MAGIC);
+        buffer.putInt(name.length);
+        buffer.put(name);
+        buffer.putInt(hashLength);
+    }
+
+    @Override
+    public void write(byte[] hash, String file) throws WriterException {
+        final long required = Integer.BYTES + hashLength + (long) Math.ceil(file.length() * encoder.maxBytesPerChar());
+        if (required > BUFFER_SIZE) {
+            throw new WriterException(String.format("cannot write '%s' file info: ", file),
+                    new IllegalArgumentException("path is too long"));
+        }
+        if (required > buffer.remaining()) {
+            flushBuffer(file);
+        }
+
+        final int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + Integer.BYTES);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(file), buffer, true);
+        encoder.flush(buffer);
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+
+        if (hash == null) {
+            for (int i = 0; i != hashLength; ++i) {
+                buffer.put((byte) 0);
+            }
+        } else {
+            buffer.put(hash);
+        }
+    }
+
+    @Override
+    public void close() throws WriterException {
+        try {
+            flushBuffer("");
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // flushing error is reported instead
+            }
+        }
+    }
+
+
+    private void flushBuffer(String file) throws WriterException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new WriterException(String.format("cannot write '%s' file info: ", file), e);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class BinaryToText {
+    public static void main(String[] args) {
+        if (args == null || args.length != 2 || args[0] == null || args[1] == null) {
+            System.err.println("USAGE: BinaryToText <binary walk output> <text walk output>");
+            return;
+        }
+
+        final Path inputPath;
+        final Path outputPath;
+        try {
+            inputPath = Path.of(args[0]);
+            outputPath = Path.of(args[1]);
+        } catch (InvalidPathException e) {
+            System.err.printf("Error: invalid path: %s%n", e.getMessage());
+            return;
+        }
+
+        try (BinaryResultReader reader = new BinaryResultReader(FileChannel.open(inputPath, StandardOpenOption.READ));
+             ResultWriter writer = new TextResultWriter(
+                     Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8),
+                     reader.hash().length)) {
+            while (reader.next()) {
+                writer.write(reader.hash(), reader.file());
+            }
+        } catch (WriterException e) {
+            System.err.printf("Output error: %s%n", e.getMessage());
+        } catch (IOException e) {
+            System.err.printf("Input error: %s%n", e.getMessage());
+        }
+    }
+}
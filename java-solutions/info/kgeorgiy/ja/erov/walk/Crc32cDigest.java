@@ -0,0 +1,33 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.Digest;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+public class Crc32cDigest implements Digest {
+    private final CRC32C checksum = new CRC32C();
+
+    @Override
+    public int length() {
+        return Integer.BYTES;
+    }
+
+    @Override
+    public void reset() {
+        checksum.reset();
+    }
+
+    @Override
+    public void update(ByteBuffer buffer) {
+        checksum.update(buffer);
+    }
+
+    @Override
+    public void digest(byte[] output) {
+        final long value = checksum.getValue();
+        for (int i = 0; i != Integer.BYTES; ++i) {
+            output[i] = (byte) (value >>> (Byte.SIZE * (Integer.BYTES - 1 - i)));
+        }
+    }
+}
@@ -1,28 +1,42 @@
 package info.kgeorgiy.ja.erov.walk;
 
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.EnumSet;
 
 public class CustomWalk {
-    private final static String HASH_ALGORITHM = "SHA-1";
-    private final static String NULL_HASH = "0000000000000000000000000000000000000000";
-
     public static void invoke(final String[] args,
                               final int walkerMaxDepth) {
-        if (args == null || args.length != 2) {
-            System.err.println("USAGE: <Walk mode> <input file> <output file>");
+        invoke(args, walkerMaxDepth, 1);
+    }
+
+    public static void invoke(final String[] args,
+                              final int walkerMaxDepth,
+                              final int defaultThreads) {
+        invoke(args, walkerMaxDepth, defaultThreads, CustomWalk::createWalker);
+    }
+
+    static void invoke(final String[] args,
+                       final int walkerMaxDepth,
+                       final int defaultThreads,
+                       final WalkerFactory walkerFactory) {
+        final WalkOptions options;
+        try {
+            options = WalkOptions.parse(args, defaultThreads);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
             return;
         }
 
         final Path inputPath;
         try {
-            inputPath = Path.of(args[0]);
+            inputPath = Path.of(options.inputFile);
         } catch (InvalidPathException | NullPointerException e) {
             System.err.printf("Error: invalid input path: %s%n", e.getMessage());
             return;
@@ -30,7 +44,7 @@ public class CustomWalk {
 
         final Path outputPath;
         try {
-            outputPath = Path.of(args[1]);
+            outputPath = Path.of(options.outputFile);
         } catch (InvalidPathException | NullPointerException e) {
             System.err.printf("Error: invalid output path: %s%n", e.getMessage());
             return;
@@ -52,28 +66,50 @@ public class CustomWalk {
             return;
         }
 
-        final MessageDigest hasher;
+        final DigestProvider hasher;
         try {
-            hasher = MessageDigest.getInstance(HASH_ALGORITHM);
+            hasher = Digests.forName(options.digest);
         } catch (NoSuchAlgorithmException e) {
-            System.err.printf("Error: hash algorithm %s is unsupported: %s%n", HASH_ALGORITHM, e.getMessage());
+            System.err.printf("Error: hash algorithm %s is unsupported: %s%n", options.digest, e.getMessage());
             return;
         }
 
-        try (BufferedReader reader = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8);
-             BufferedWriter writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
-            Walker walker = new Walker(hasher, writer, NULL_HASH);
-            String walkingPath;
-            while ((walkingPath = reader.readLine()) != null) {
-                try {
-                    Files.walkFileTree(
-                            Path.of(walkingPath),
-                            EnumSet.noneOf(FileVisitOption.class),
-                            walkerMaxDepth,
-                            walker);
-                } catch (InvalidPathException pathCreationExc) {
-                    walker.print(NULL_HASH, walkingPath);
+        final Path cachePath;
+        try {
+            cachePath = options.cacheFile == null ? null : Path.of(options.cacheFile);
+        } catch (InvalidPathException e) {
+            System.err.printf("Error: invalid cache path: %s%n", e.getMessage());
+            return;
+        }
+
+        try (HashCache cache = cachePath == null ? null : new HashCache(cachePath, hasher.name());
+             BufferedReader reader = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8);
+             ResultWriter writer = openWriter(options.format, outputPath, hasher);
+             Walker walker = walkerFactory.create(hasher, writer, cache, options.threads);
+             ParallelTraversal traversal = options.traversalThreads == 1
+                     ? null
+                     : new ParallelTraversal(options.traversalThreads)) {
+            final WalkStatistics statistics = walker.statistics().expose(options.progressSeconds);
+            try {
+                String walkingPath;
+                while ((walkingPath = reader.readLine()) != null) {
+                    try {
+                        if (traversal == null) {
+                            Files.walkFileTree(
+                                    Path.of(walkingPath),
+                                    EnumSet.noneOf(FileVisitOption.class),
+                                    walkerMaxDepth,
+                                    walker);
+                        } else {
+                            traversal.walk(Path.of(walkingPath), walkerMaxDepth, walker);
+                        }
+                    } catch (InvalidPathException pathCreationExc) {
+                        walker.print(null, walkingPath);
+                    }
                 }
+                walker.flush();
+            } finally {
+                statistics.close();
             }
         } catch (WriterException e) {
             System.err.printf("Output error: %s%n", e.getMessage());
@@ -81,4 +117,35 @@ public class CustomWalk {
             System.err.printf("Input error: %s%n", e.getMessage());
         }
     }
+
+    private static Walker createWalker(final DigestProvider hasher,
+                                       final ResultWriter writer,
+                                       final HashCache cache,
+                                       final int threads) {
+        return threads == 1
+                ? new Walker(hasher, writer, cache)
+                : new ParallelWalker(hasher, writer, cache, threads);
+    }
+
+    private static ResultWriter openWriter(final String format,
+                                           final Path outputPath,
+                                           final DigestProvider hasher) throws IOException {
+        final int hashLength = hasher.create().length();
+        if (WalkOptions.BINARY.equals(format)) {
+            return new BinaryResultWriter(
+                    FileChannel.open(
+                            outputPath,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING),
+                    hasher.name(),
+                    hashLength);
+        }
+        return new TextResultWriter(Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8), hashLength);
+    }
+
+    @FunctionalInterface
+    interface WalkerFactory {
+        Walker create(DigestProvider hasher, ResultWriter writer, HashCache cache, int threads);
+    }
 }
@@ -0,0 +1,46 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.Digest;
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+public final class Digests {
+    public final static String DEFAULT_ALGORITHM = "SHA-1";
+
+    private Digests() {
+    }
+
+    public static DigestProvider forName(String name) throws NoSuchAlgorithmException {
+        for (DigestProvider provider : ServiceLoader.load(DigestProvider.class)) {
+            if (provider.name().equalsIgnoreCase(name)) {
+                return provider;
+            }
+        }
+
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "xxh3" -> provider("XXH3", Xxh3Digest::new);
+            case "xxh64" -> provider("XXH64", Xxh64Digest::new);
+            case "crc32c" -> provider("CRC32C", Crc32cDigest::new);
+            default -> new MessageDigestProvider(name);
+        };
+    }
+
+
+    private static DigestProvider provider(String name, Supplier<Digest> factory) {
+        return new DigestProvider() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Digest create() {
+                return factory.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package info.kgeorgiy.ja.erov.walk;
+
+public class DuplicateWalk {
+    public static void main(String[] args) {
+        CustomWalk.invoke(
+                args,
+                Integer.MAX_VALUE,
+                1,
+                DuplicateWalker::new);
+    }
+}
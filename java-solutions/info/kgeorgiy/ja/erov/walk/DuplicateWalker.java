@@ -0,0 +1,159 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+public class DuplicateWalker extends Walker {
+    private final static long PREFIX_SIZE = 1 << 16;
+    private final Map<Long, List<Candidate>> bySize;
+    private final Set<Object> visitedKeys;
+    private final ExecutorService hashersPool;
+    private final ThreadLocal<FileHasher> hashers;
+
+    public DuplicateWalker(DigestProvider hasher, ResultWriter writer) {
+        this(hasher, writer, null);
+    }
+
+    public DuplicateWalker(DigestProvider hasher, ResultWriter writer, HashCache cache) {
+        this(hasher, writer, cache, 1);
+    }
+
+    public DuplicateWalker(DigestProvider hasher, ResultWriter writer, HashCache cache, int threads) {
+        super(hasher, writer, cache);
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads amount must be a positive integer");
+        }
+        this.bySize = new LinkedHashMap<>();
+        this.visitedKeys = new HashSet<>();
+        this.hashersPool = threads == 1 ? null : Executors.newFixedThreadPool(threads, Executors.defaultThreadFactory());
+        this.hashers = ThreadLocal.withInitial(() -> new FileHasher(hasher.create(), statistics));
+    }
+
+    @Override
+    public void print(byte[] hash, String file) {
+        // files that cannot be walked are never duplicates
+        statistics.fileVisited(true);
+    }
+
+    @Override
+    public void flush() throws WriterException {
+        // every stage hashes candidates of all sizes at once, so small groups still keep all threads busy
+        final List<List<Candidate>> small = new ArrayList<>();
+        final List<List<Candidate>> large = new ArrayList<>();
+        for (List<Candidate> sameSize : bySize.values()) {
+            if (sameSize.size() >= 2) {
+                (sameSize.get(0).attrs().size() <= PREFIX_SIZE ? small : large).add(sameSize);
+            }
+        }
+        bySize.clear();
+
+        final List<List<Candidate>> samePrefix = new ArrayList<>(small);
+        for (Map<ByteBuffer, List<Candidate>> groups
+                : groupAll(large, (fileHasher, candidate) -> fileHasher.hash(candidate.file(), PREFIX_SIZE))) {
+            samePrefix.addAll(groups.values());
+        }
+        for (Map<ByteBuffer, List<Candidate>> groups : groupAll(samePrefix, this::fullHash)) {
+            for (Map.Entry<ByteBuffer, List<Candidate>> duplicates : groups.entrySet()) {
+                for (Candidate duplicate : duplicates.getValue()) {
+                    write(duplicates.getKey().array(), duplicate.file().toString());
+                }
+            }
+        }
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        statistics.fileVisited(false);
+        final BasicFileAttributes target;
+        try {
+            target = attrs.isSymbolicLink() ? Files.readAttributes(file, BasicFileAttributes.class) : attrs;
+        } catch (IOException e) {
+            return FileVisitResult.CONTINUE;
+        }
+        // the same file reached through another root or a link is not a duplicate of itself
+        final Object key = target.fileKey();
+        if (key == null || visitedKeys.add(key)) {
+            bySize.computeIfAbsent(target.size(), size -> new ArrayList<>()).add(new Candidate(file, target));
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+        if (exc instanceof WriterException) {
+            throw exc;
+        }
+        statistics.fileVisited(true);
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public void close() {
+        if (hashersPool != null) {
+            hashersPool.shutdownNow();
+        }
+    }
+
+
+    private byte[] fullHash(FileHasher fileHasher, Candidate candidate) {
+        final byte[] cached = cachedHash(candidate.file(), candidate.attrs());
+        return cached != null ? cached : hash(fileHasher, candidate.file(), candidate.attrs());
+    }
+
+    private List<Map<ByteBuffer, List<Candidate>>> groupAll(List<List<Candidate>> candidateGroups,
+                                                          BiFunction<FileHasher, Candidate, byte[]> hashFunction)
+            throws WriterException {
+        final List<List<Future<byte[]>>> hashes = new ArrayList<>();
+        for (List<Candidate> candidates : candidateGroups) {
+            final List<Future<byte[]>> groupHashes = new ArrayList<>();
+            for (Candidate candidate : candidates) {
+                groupHashes.add(hashersPool == null
+                        ? CompletableFuture.completedFuture(hashFunction.apply(hasher, candidate))
+                        : hashersPool.submit(() -> hashFunction.apply(hashers.get(), candidate)));
+            }
+            hashes.add(groupHashes);
+        }
+
+        final List<Map<ByteBuffer, List<Candidate>>> result = new ArrayList<>();
+        for (int i = 0; i != candidateGroups.size(); ++i) {
+            final Map<ByteBuffer, List<Candidate>> groups = new LinkedHashMap<>();
+            for (int j = 0; j != candidateGroups.get(i).size(); ++j) {
+                final byte[] hash = await(hashes.get(i).get(j));
+                if (hash != null) {
+                    groups.computeIfAbsent(ByteBuffer.wrap(hash), key -> new ArrayList<>())
+                            .add(candidateGroups.get(i).get(j));
+                }
+            }
+            groups.values().removeIf(group -> group.size() < 2);
+            result.add(groups);
+        }
+        return result;
+    }
+
+    private static byte[] await(Future<byte[]> hash) throws WriterException {
+        try {
+            return hash.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriterException("interrupted while waiting for file hashes", e);
+        }
+    }
+
+    private record Candidate(Path file, BasicFileAttributes attrs) {
+    }
+}
@@ -0,0 +1,118 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.Digest;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class FileHasher {
+    private final static int BUFFER_SIZE = 1 << 16;
+    private final static long MAPPING_THRESHOLD = 1L << 24;
+    private final static long MAPPING_WINDOW_SIZE = 1L << 26;
+    private final static Unmapper UNMAPPER = Unmapper.find();
+    private final Digest hasher;
+    private final ByteBuffer buffer;
+    private final WalkStatistics statistics;
+
+    FileHasher(Digest hasher, WalkStatistics statistics) {
+        this(hasher, statistics, BUFFER_SIZE);
+    }
+
+    FileHasher(Digest hasher, WalkStatistics statistics, int bufferSize) {
+        this.hasher = hasher;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.statistics = statistics;
+    }
+
+    byte[] hash(Path file) {
+        return hash(file, Long.MAX_VALUE);
+    }
+
+    byte[] hash(Path file, long limit) {
+        hasher.reset();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = Math.min(channel.size(), limit);
+            if (size >= MAPPING_THRESHOLD && UNMAPPER != null) {
+                hashMapped(channel, size);
+            } else {
+                hashBuffered(channel, limit);
+            }
+        } catch (IOException | UnsupportedOperationException fileReadingExc) {
+            return null;
+        } catch (InternalError mappedAccessExc) {
+            // mapped file was truncated while being read
+            return null;
+        }
+        final byte[] digest = new byte[hasher.length()];
+        hasher.digest(digest);
+        return digest;
+    }
+
+    private void hashMapped(FileChannel channel, long size) throws IOException {
+        for (long position = 0; position < size; position += MAPPING_WINDOW_SIZE) {
+            final long windowSize = Math.min(MAPPING_WINDOW_SIZE, size - position);
+            final long mappingStart = System.nanoTime();
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+            final long digestStart = System.nanoTime();
+            try {
+                // page faults happen here, so mapped reading is accounted as digest time
+                hasher.update(window);
+            } finally {
+                UNMAPPER.unmap(window);
+            }
+            statistics.read(digestStart - mappingStart);
+            statistics.digest(windowSize, System.nanoTime() - digestStart);
+        }
+    }
+
+    private void hashBuffered(FileChannel channel, long limit) throws IOException {
+        long remaining = limit;
+        while (remaining > 0) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), remaining));
+            final long readStart = System.nanoTime();
+            final int readBytes = channel.read(buffer);
+            final long digestStart = System.nanoTime();
+            statistics.read(digestStart - readStart);
+            if (readBytes == -1) {
+                break;
+            }
+            remaining -= readBytes;
+            buffer.flip();
+            hasher.update(buffer);
+            statistics.digest(readBytes, System.nanoTime() - digestStart);
+        }
+    }
+
+    /**
+     * Releases mapped windows right away instead of waiting for GC, so hashing many huge files
+     * does not run out of address space or map count.
+     * Files are read through the direct buffer when the runtime does not allow it.
+     */
+    private record Unmapper(Object unsafe, Method invokeCleaner) {
+        static Unmapper find() {
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Field instance = unsafeClass.getDeclaredField("theUnsafe");
+                instance.setAccessible(true);
+                return new Unmapper(instance.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        void unmap(MappedByteBuffer window) {
+            try {
+                invokeCleaner.invoke(unsafe, window);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot unmap file window", e);
+            }
+        }
+    }
+}
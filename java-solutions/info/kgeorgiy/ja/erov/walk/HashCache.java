@@ -0,0 +1,193 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class HashCache implements AutoCloseable {
+    private final static int MAGIC = 0x57414c43;
+    private final Path cacheFile;
+    private final String algorithm;
+    private final Map<String, Entry> entries;
+    private DataOutputStream appender;
+    private boolean loaded;
+    private boolean disabled;
+
+    public HashCache(Path cacheFile, String algorithm) {
+        this.cacheFile = cacheFile;
+        this.algorithm = algorithm;
+        this.entries = new HashMap<>();
+    }
+
+    public synchronized byte[] find(Path file, BasicFileAttributes attrs) {
+        if (!ensureLoaded()) {
+            return null;
+        }
+        final Entry entry = entries.get(key(file));
+        return entry != null && entry.matches(attrs) ? entry.hash() : null;
+    }
+
+    public synchronized void store(Path file, BasicFileAttributes attrs, byte[] hash) {
+        if (!ensureLoaded()) {
+            return;
+        }
+        final String path = key(file);
+        final Entry entry = new Entry(attrs.size(), modifiedTime(attrs), fileKey(attrs), hash);
+        if (entry.sameAs(entries.put(path, entry))) {
+            return;
+        }
+        try {
+            writeRecord(path, entry);
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (appender != null) {
+            try {
+                appender.close();
+            } catch (IOException e) {
+                System.err.printf("Warning: cannot save hash cache '%s': %s%n", cacheFile, e.getMessage());
+            }
+            appender = null;
+        }
+        disabled = true;
+    }
+
+
+    private boolean ensureLoaded() {
+        if (!loaded && !disabled) {
+            loaded = true;
+            try {
+                load();
+            } catch (IOException e) {
+                disable(e);
+            }
+        }
+        return !disabled;
+    }
+
+    private void load() throws IOException {
+        final FileChannel channel = FileChannel.open(
+                cacheFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long validSize = 0;
+            int records = 0;
+            if (channel.size() > 0) {
+                final MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                try {
+                    if (index.getInt() == MAGIC && algorithm.equals(readString(index))) {
+                        validSize = index.position();
+                        while (index.hasRemaining()) {
+                            final String path = readString(index);
+                            entries.put(path, new Entry(index.getLong(), index.getLong(), readString(index), readBytes(index)));
+                            validSize = index.position();
+                            ++records;
+                        }
+                    }
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    // torn tail after an interrupted run, valid prefix is kept
+                }
+            }
+
+            if (records > 2 * entries.size()) {
+                // too many stale records, rewrite live ones only
+                validSize = 0;
+            }
+            channel.truncate(validSize);
+            channel.position(validSize);
+            appender = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            if (validSize == 0) {
+                appender.writeInt(MAGIC);
+                writeString(algorithm);
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    writeRecord(entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void disable(IOException e) {
+        System.err.printf("Warning: hash cache '%s' is disabled: %s%n", cacheFile, e.getMessage());
+        close();
+    }
+
+    private void writeRecord(String path, Entry entry) throws IOException {
+        writeString(path);
+        appender.writeLong(entry.size());
+        appender.writeLong(entry.modified());
+        writeString(entry.fileKey());
+        writeBytes(entry.hash());
+    }
+
+    private void writeString(String value) throws IOException {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        appender.writeInt(bytes.length);
+        appender.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        return new String(readBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("corrupted record length");
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    private static long modifiedTime(BasicFileAttributes attrs) {
+        return attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    private static String fileKey(BasicFileAttributes attrs) {
+        return Objects.toString(attrs.fileKey(), "");
+    }
+
+    private record Entry(long size, long modified, String fileKey, byte[] hash) {
+        boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size() && modified == modifiedTime(attrs) && fileKey.equals(HashCache.fileKey(attrs));
+        }
+
+        boolean sameAs(Entry other) {
+            return other != null
+                    && size == other.size
+                    && modified == other.modified
+                    && fileKey.equals(other.fileKey)
+                    && Arrays.equals(hash, other.hash);
+        }
+    }
+}
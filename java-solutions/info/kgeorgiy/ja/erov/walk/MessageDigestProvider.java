@@ -0,0 +1,58 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.Digest;
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class MessageDigestProvider implements DigestProvider {
+    private final String algorithm;
+
+    public MessageDigestProvider(String algorithm) throws NoSuchAlgorithmException {
+        this.algorithm = MessageDigest.getInstance(algorithm).getAlgorithm();
+    }
+
+    @Override
+    public String name() {
+        return algorithm;
+    }
+
+    @Override
+    public Digest create() {
+        final MessageDigest hasher;
+        try {
+            hasher = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return new Digest() {
+            @Override
+            public int length() {
+                return hasher.getDigestLength();
+            }
+
+            @Override
+            public void reset() {
+                hasher.reset();
+            }
+
+            @Override
+            public void update(ByteBuffer buffer) {
+                hasher.update(buffer);
+            }
+
+            @Override
+            public void digest(byte[] output) {
+                try {
+                    hasher.digest(output, 0, output.length);
+                } catch (DigestException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            }
+        };
+    }
+}
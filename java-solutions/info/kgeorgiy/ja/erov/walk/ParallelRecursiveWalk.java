@@ -0,0 +1,7 @@
+package info.kgeorgiy.ja.erov.walk;
+
+public class ParallelRecursiveWalk {
+    public static void main(String[] args) {
+        CustomWalk.invoke(args, Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,158 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+public class ParallelTraversal implements AutoCloseable {
+    private final static int PREFETCHED_PER_THREAD = 64;
+    private final ForkJoinPool listersPool;
+    // directories listed ahead of the replaying thread, so memory does not grow with the tree
+    private final Semaphore prefetchPermits;
+
+    public ParallelTraversal(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads amount must be a positive integer");
+        }
+        this.listersPool = new ForkJoinPool(threads);
+        this.prefetchPermits = new Semaphore(threads * PREFETCHED_PER_THREAD);
+    }
+
+    public void walk(Path start, int maxDepth, FileVisitor<Path> visitor) throws IOException {
+        replay(entry(start, 0, maxDepth), visitor);
+    }
+
+    @Override
+    public void close() {
+        listersPool.shutdownNow();
+    }
+
+
+    private Entry entry(Path file, int depth, int maxDepth) {
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return new FailedEntry(file, e);
+        }
+
+        if (depth >= maxDepth || !attrs.isDirectory()) {
+            return new FileEntry(file, attrs);
+        }
+        return new DirectoryEntry(file, attrs, new ListingTask(file, depth, maxDepth));
+    }
+
+    private FileVisitResult replay(Entry entry, FileVisitor<Path> visitor) throws IOException {
+        if (entry instanceof FileEntry file) {
+            return visitor.visitFile(file.file(), file.attrs());
+        }
+        if (entry instanceof FailedEntry failed) {
+            return visitor.visitFileFailed(failed.file(), failed.exc());
+        }
+
+        final DirectoryEntry directory = (DirectoryEntry) entry;
+        final Listing listing = list(directory.listing());
+        if (listing.openExc() != null) {
+            return visitor.visitFileFailed(directory.file(), listing.openExc());
+        }
+
+        FileVisitResult result = visitor.preVisitDirectory(directory.file(), directory.attrs());
+        if (result != FileVisitResult.CONTINUE) {
+            cancel(listing.entries());
+            return result == FileVisitResult.SKIP_SUBTREE ? FileVisitResult.CONTINUE : result;
+        }
+
+        for (int i = 0; i != listing.entries().size(); ++i) {
+            result = replay(listing.entries().get(i), visitor);
+            if (result == FileVisitResult.TERMINATE) {
+                cancel(listing.entries().subList(i + 1, listing.entries().size()));
+                return result;
+            }
+            if (result == FileVisitResult.SKIP_SIBLINGS) {
+                cancel(listing.entries().subList(i + 1, listing.entries().size()));
+                break;
+            }
+        }
+        return visitor.postVisitDirectory(directory.file(), listing.iterationExc());
+    }
+
+    private Listing list(ListingTask task) {
+        if (!task.prefetched) {
+            return listersPool.invoke(task);
+        }
+        final Listing listing = task.join();
+        prefetchPermits.release();
+        return listing;
+    }
+
+    private void cancel(List<Entry> entries) {
+        // prefetched listings are drained rather than cancelled, so permits of their own prefetches are returned
+        for (Entry entry : entries) {
+            if (entry instanceof DirectoryEntry directory && directory.listing().prefetched) {
+                cancel(list(directory.listing()).entries());
+            }
+        }
+    }
+
+    private interface Entry {
+    }
+
+    private record FileEntry(Path file, BasicFileAttributes attrs) implements Entry {
+    }
+
+    private record FailedEntry(Path file, IOException exc) implements Entry {
+    }
+
+    private record DirectoryEntry(Path file, BasicFileAttributes attrs, ListingTask listing) implements Entry {
+    }
+
+    private record Listing(List<Entry> entries, IOException openExc, IOException iterationExc) {
+    }
+
+    private class ListingTask extends RecursiveTask<Listing> {
+        private static final long serialVersionUID = 1L;
+        private final transient Path directory;
+        private final int depth;
+        private final int maxDepth;
+        private boolean prefetched;
+
+        private ListingTask(Path directory, int depth, int maxDepth) {
+            this.directory = directory;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+        }
+
+        @Override
+        protected Listing compute() {
+            final DirectoryStream<Path> stream;
+            try {
+                stream = Files.newDirectoryStream(directory);
+            } catch (IOException e) {
+                return new Listing(List.of(), e, null);
+            }
+
+            final List<Entry> entries = new ArrayList<>();
+            IOException iterationExc = null;
+            try (stream) {
+                for (Path child : stream) {
+                    final Entry entry = entry(child, depth + 1, maxDepth);
+                    if (entry instanceof DirectoryEntry subdirectory && prefetchPermits.tryAcquire()) {
+                        subdirectory.listing().prefetched = true;
+                        subdirectory.listing().fork();
+                    }
+                    entries.add(entry);
+                }
+            } catch (DirectoryIteratorException e) {
+                iterationExc = e.getCause();
+            } catch (IOException e) {
+                iterationExc = e;
+            }
+            return new Listing(entries, null, iterationExc);
+        }
+    }
+}
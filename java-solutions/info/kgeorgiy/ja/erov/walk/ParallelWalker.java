@@ -0,0 +1,87 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+public class ParallelWalker extends Walker {
+    private final static int PENDING_PER_THREAD = 64;
+    private final ExecutorService hashersPool;
+    private final ThreadLocal<FileHasher> hashers;
+    private final Queue<PendingFile> pending;
+    private final int maxPending;
+
+    public ParallelWalker(DigestProvider hasher, ResultWriter writer, int threads) {
+        this(hasher, writer, null, threads);
+    }
+
+    public ParallelWalker(DigestProvider hasher, ResultWriter writer, HashCache cache, int threads) {
+        super(hasher, writer, cache);
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads amount must be a positive integer");
+        }
+        this.hashersPool = Executors.newFixedThreadPool(threads, Executors.defaultThreadFactory());
+        this.hashers = ThreadLocal.withInitial(() -> new FileHasher(hasher.create(), statistics));
+        this.pending = new ArrayDeque<>();
+        this.maxPending = threads * PENDING_PER_THREAD;
+    }
+
+    @Override
+    public void print(byte[] hash, String file) throws WriterException {
+        enqueue(CompletableFuture.completedFuture(hash), file);
+    }
+
+    @Override
+    public void flush() throws WriterException {
+        while (!pending.isEmpty()) {
+            printHead();
+        }
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        final byte[] cached = cachedHash(file, attrs);
+        enqueue(
+                cached != null
+                        ? CompletableFuture.completedFuture(cached)
+                        : hashersPool.submit(() -> hash(hashers.get(), file, attrs)),
+                file.toString());
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public void close() {
+        hashersPool.shutdownNow();
+    }
+
+
+    private void enqueue(Future<byte[]> hash, String file) throws WriterException {
+        pending.add(new PendingFile(hash, file));
+        while (pending.size() > maxPending) {
+            printHead();
+        }
+    }
+
+    private void printHead() throws WriterException {
+        final PendingFile head = pending.remove();
+        byte[] hash;
+        try {
+            hash = head.hash().get();
+        } catch (ExecutionException e) {
+            hash = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriterException(String.format("interrupted while waiting for '%s' file hash: ", head.file()), e);
+        }
+        super.print(hash, head.file());
+    }
+
+    private record PendingFile(Future<byte[]> hash, String file) {
+    }
+}
@@ -0,0 +1,8 @@
+package info.kgeorgiy.ja.erov.walk;
+
+public interface ResultWriter extends AutoCloseable {
+    void write(byte[] hash, String file) throws WriterException;
+
+    @Override
+    void close() throws WriterException;
+}
@@ -0,0 +1,46 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class TextResultWriter implements ResultWriter {
+    private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private final BufferedWriter writer;
+    private final char[] hex;
+
+    public TextResultWriter(BufferedWriter writer, int hashLength) {
+        this.writer = writer;
+        this.hex = new char[2 * hashLength];
+    }
+
+    @Override
+    public void write(byte[] hash, String file) throws WriterException {
+        if (hash == null) {
+            Arrays.fill(hex, '0');
+        } else {
+            for (int i = 0; i != hash.length; ++i) {
+                hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+                hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xf];
+            }
+        }
+
+        try {
+            writer.write(hex);
+            writer.write(' ');
+            writer.write(file);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new WriterException(String.format("cannot write '%s' file info: ", file), e);
+        }
+    }
+
+    @Override
+    public void close() throws WriterException {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new WriterException("cannot close output: ", e);
+        }
+    }
+}
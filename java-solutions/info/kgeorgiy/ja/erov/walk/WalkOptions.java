@@ -0,0 +1,77 @@
+package info.kgeorgiy.ja.erov.walk;
+
+class WalkOptions {
+    final static String USAGE = "USAGE: <Walk mode> [--threads <n>] [--traversal-threads <n>] [--cache <cache file>] [--digest <algorithm>] [--format text|binary] [--progress <seconds>] <input file> <output file>";
+    private final static String THREADS = "--threads";
+    private final static String TRAVERSAL_THREADS = "--traversal-threads";
+    private final static String CACHE = "--cache";
+    private final static String DIGEST = "--digest";
+    private final static String FORMAT = "--format";
+    private final static String PROGRESS = "--progress";
+    final static String TEXT = "text";
+    final static String BINARY = "binary";
+
+    int threads;
+    int traversalThreads;
+    String cacheFile;
+    String digest;
+    String format;
+    int progressSeconds;
+    String inputFile;
+    String outputFile;
+
+    private WalkOptions(int threads) {
+        this.threads = threads;
+        this.traversalThreads = 1;
+        this.digest = Digests.DEFAULT_ALGORITHM;
+        this.format = TEXT;
+    }
+
+    static WalkOptions parse(final String[] args, final int defaultThreads) {
+        if (args == null) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        final WalkOptions options = new WalkOptions(defaultThreads);
+        int i = 0;
+        for (; i + 2 < args.length && args[i] != null && args[i].startsWith("--"); i += 2) {
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case THREADS -> options.threads = parsePositive(THREADS, value);
+                case TRAVERSAL_THREADS -> options.traversalThreads = parsePositive(TRAVERSAL_THREADS, value);
+                case CACHE -> options.cacheFile = value;
+                case DIGEST -> options.digest = value;
+                case FORMAT -> options.format = parseFormat(value);
+                case PROGRESS -> options.progressSeconds = parsePositive(PROGRESS, value);
+                default -> throw new IllegalArgumentException(String.format("unknown option %s%n%s", args[i], USAGE));
+            }
+        }
+
+        if (args.length - i != 2) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        options.inputFile = args[i];
+        options.outputFile = args[i + 1];
+        return options;
+    }
+
+    private static String parseFormat(final String value) {
+        if (!TEXT.equals(value) && !BINARY.equals(value)) {
+            throw new IllegalArgumentException(String.format("%s must be %s or %s", FORMAT, TEXT, BINARY));
+        }
+        return value;
+    }
+
+    private static int parsePositive(final String option, final String value) {
+        final int result;
+        try {
+            result = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s must be an integer value", option));
+        }
+        if (result <= 0) {
+            throw new IllegalArgumentException(String.format("%s must be a positive integer", option));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WalkStatistics implements WalkStatisticsMXBean, AutoCloseable {
+    private final static String OBJECT_NAME = "info.kgeorgiy.ja.erov.walk:type=WalkStatistics";
+    private final LongAdder filesVisited = new LongAdder();
+    private final LongAdder bytesHashed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder digestNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private ObjectName objectName;
+    private ScheduledExecutorService reporter;
+
+    public void fileVisited(boolean failed) {
+        filesVisited.increment();
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    public void read(long nanos) {
+        readNanos.add(nanos);
+    }
+
+    public void digest(long bytes, long nanos) {
+        bytesHashed.add(bytes);
+        digestNanos.add(nanos);
+    }
+
+    public void write(long nanos) {
+        writeNanos.add(nanos);
+    }
+
+    @Override
+    public long getFilesVisited() {
+        return filesVisited.sum();
+    }
+
+    @Override
+    public long getBytesHashed() {
+        return bytesHashed.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos.sum();
+    }
+
+    @Override
+    public long getDigestNanos() {
+        return digestNanos.sum();
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos.sum();
+    }
+
+    public synchronized WalkStatistics expose(int progressSeconds) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            System.err.printf("Warning: walk statistics are not exposed through JMX: %s%n", e.getMessage());
+        }
+
+        if (progressSeconds > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "walk-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(
+                    () -> System.err.println(progressLine()),
+                    progressSeconds,
+                    progressSeconds,
+                    TimeUnit.SECONDS);
+        }
+        return this;
+    }
+
+    public String progressLine() {
+        final double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        final double mebibytes = getBytesHashed() / (double) (1 << 20);
+        return String.format(
+                "Progress: %d files, %d failed, %.1f MiB (%.1f MiB/s), read %.1fs, digest %.1fs, write %.1fs",
+                getFilesVisited(),
+                getFailures(),
+                mebibytes,
+                elapsed > 0 ? mebibytes / elapsed : 0,
+                getReadNanos() / 1e9,
+                getDigestNanos() / 1e9,
+                getWriteNanos() / 1e9);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            System.err.println(progressLine());
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                // already unregistered
+            }
+            objectName = null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package info.kgeorgiy.ja.erov.walk;
+
+public interface WalkStatisticsMXBean {
+    long getFilesVisited();
+
+    long getBytesHashed();
+
+    long getFailures();
+
+    long getReadNanos();
+
+    long getDigestNanos();
+
+    long getWriteNanos();
+}
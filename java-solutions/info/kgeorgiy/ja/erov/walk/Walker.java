@@ -1,48 +1,45 @@
 package info.kgeorgiy.ja.erov.walk;
 
-import java.io.BufferedWriter;
+import info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
+
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.security.MessageDigest;
-import java.util.HexFormat;
 
-public class Walker extends SimpleFileVisitor<Path> {
-    private final static int BUFFER_SIZE = 1 << 16;
-    private final MessageDigest hasher;
-    private final BufferedWriter writer;
-    private final String NULL_HASH;
+public class Walker extends SimpleFileVisitor<Path> implements AutoCloseable {
+    final FileHasher hasher;
+    final WalkStatistics statistics;
+    private final ResultWriter writer;
+    private final HashCache cache;
+
+    public Walker(DigestProvider hasher, ResultWriter writer) {
+        this(hasher, writer, null);
+    }
 
-    public Walker(MessageDigest hasher, BufferedWriter writer, String NULL_HASH) {
-        this.hasher = hasher;
+    public Walker(DigestProvider hasher, ResultWriter writer, HashCache cache) {
+        this.statistics = new WalkStatistics();
+        this.hasher = new FileHasher(hasher.create(), statistics);
         this.writer = writer;
-        this.NULL_HASH = NULL_HASH;
+        this.cache = cache;
     }
 
-    public void print(String hash, String file) throws WriterException {
-        try {
-            writer.write(String.format("%s %s", hash, file));
-            writer.newLine();
-        } catch (IOException e) {
-            throw new WriterException(String.format("cannot write '%s' file info: ", file), e);
-        }
+    public void print(byte[] hash, String file) throws WriterException {
+        statistics.fileVisited(hash == null);
+        write(hash, file);
+    }
+
+    public WalkStatistics statistics() {
+        return statistics;
+    }
+
+    public void flush() throws WriterException {
+        // nothing is pending in sequential mode
     }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-        try (InputStream fileReader = Files.newInputStream(file)) {
-            byte[] buffer = new byte[BUFFER_SIZE];
-            int readBytes;
-            hasher.reset();
-            while ((readBytes = fileReader.read(buffer)) != -1) {
-                hasher.update(buffer, 0, readBytes);
-            }
-        } catch (IOException fileReadingExc) {
-            print(NULL_HASH, file.toString());
-            return FileVisitResult.CONTINUE;
-        }
-        print(HexFormat.of().formatHex(hasher.digest()), file.toString());
+        final byte[] cached = cachedHash(file, attrs);
+        print(cached != null ? cached : hash(hasher, file, attrs), file.toString());
         return FileVisitResult.CONTINUE;
     }
 
@@ -51,7 +48,31 @@ public class Walker extends SimpleFileVisitor<Path> {
         if (exc instanceof WriterException) {
             throw exc;
         }
-        print(NULL_HASH, file.toString());
+        print(null, file.toString());
         return FileVisitResult.CONTINUE;
     }
+
+    @Override
+    public void close() {
+        // no resources are owned in sequential mode
+    }
+
+
+    void write(byte[] hash, String file) throws WriterException {
+        final long start = System.nanoTime();
+        writer.write(hash, file);
+        statistics.write(System.nanoTime() - start);
+    }
+
+    byte[] cachedHash(Path file, BasicFileAttributes attrs) {
+        return cache == null ? null : cache.find(file, attrs);
+    }
+
+    byte[] hash(FileHasher fileHasher, Path file, BasicFileAttributes attrs) {
+        final byte[] hash = fileHasher.hash(file);
+        if (cache != null && hash != null) {
+            cache.store(file, attrs, hash);
+        }
+        return hash;
+    }
 }
@@ -0,0 +1,271 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.Digest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class Xxh3Digest implements Digest {
+    private final static long PRIME32_1 = 0x9E3779B1L;
+    private final static long PRIME32_2 = 0x85EBCA77L;
+    private final static long PRIME32_3 = 0xC2B2AE3DL;
+    private final static long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private final static long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private final static long PRIME64_3 = 0x165667B19E3779F9L;
+    private final static long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private final static long PRIME64_5 = 0x27D4EB2F165667C5L;
+    private final static long PRIME_MX1 = 0x165667919E3779F9L;
+    private final static long PRIME_MX2 = 0x9FB21C651E98DF25L;
+    private final static int STRIPE_SIZE = 64;
+    private final static int SECRET_CONSUME_RATE = 8;
+    private final static int STRIPES_PER_BLOCK = 16;
+    private final static int BUFFER_SIZE = 256;
+    private final static int MIDSIZE_MAX = 240;
+    private final static ByteBuffer SECRET = ByteBuffer.wrap(new byte[]{
+            (byte) 0xb8, (byte) 0xfe, (byte) 0x6c, (byte) 0x39, (byte) 0x23, (byte) 0xa4, (byte) 0x4b, (byte) 0xbe,
+            (byte) 0x7c, (byte) 0x01, (byte) 0x81, (byte) 0x2c, (byte) 0xf7, (byte) 0x21, (byte) 0xad, (byte) 0x1c,
+            (byte) 0xde, (byte) 0xd4, (byte) 0x6d, (byte) 0xe9, (byte) 0x83, (byte) 0x90, (byte) 0x97, (byte) 0xdb,
+            (byte) 0x72, (byte) 0x40, (byte) 0xa4, (byte) 0xa4, (byte) 0xb7, (byte) 0xb3, (byte) 0x67, (byte) 0x1f,
+            (byte) 0xcb, (byte) 0x79, (byte) 0xe6, (byte) 0x4e, (byte) 0xcc, (byte) 0xc0, (byte) 0xe5, (byte) 0x78,
+            (byte) 0x82, (byte) 0x5a, (byte) 0xd0, (byte) 0x7d, (byte) 0xcc, (byte) 0xff, (byte) 0x72, (byte) 0x21,
+            (byte) 0xb8, (byte) 0x08, (byte) 0x46, (byte) 0x74, (byte) 0xf7, (byte) 0x43, (byte) 0x24, (byte) 0x8e,
+            (byte) 0xe0, (byte) 0x35, (byte) 0x90, (byte) 0xe6, (byte) 0x81, (byte) 0x3a, (byte) 0x26, (byte) 0x4c,
+            (byte) 0x3c, (byte) 0x28, (byte) 0x52, (byte) 0xbb, (byte) 0x91, (byte) 0xc3, (byte) 0x00, (byte) 0xcb,
+            (byte) 0x88, (byte) 0xd0, (byte) 0x65, (byte) 0x8b, (byte) 0x1b, (byte) 0x53, (byte) 0x2e, (byte) 0xa3,
+            (byte) 0x71, (byte) 0x64, (byte) 0x48, (byte) 0x97, (byte) 0xa2, (byte) 0x0d, (byte) 0xf9, (byte) 0x4e,
+            (byte) 0x38, (byte) 0x19, (byte) 0xef, (byte) 0x46, (byte) 0xa9, (byte) 0xde, (byte) 0xac, (byte) 0xd8,
+            (byte) 0xa8, (byte) 0xfa, (byte) 0x76, (byte) 0x3f, (byte) 0xe3, (byte) 0x9c, (byte) 0x34, (byte) 0x3f,
+            (byte) 0xf9, (byte) 0xdc, (byte) 0xbb, (byte) 0xc7, (byte) 0xc7, (byte) 0x0b, (byte) 0x4f, (byte) 0x1d,
+            (byte) 0x8a, (byte) 0x51, (byte) 0xe0, (byte) 0x4b, (byte) 0xcd, (byte) 0xb4, (byte) 0x59, (byte) 0x31,
+            (byte) 0xc8, (byte) 0x9f, (byte) 0x7e, (byte) 0xc9, (byte) 0xd9, (byte) 0x78, (byte) 0x73, (byte) 0x64,
+            (byte) 0xea, (byte) 0xc5, (byte) 0xac, (byte) 0x83, (byte) 0x34, (byte) 0xd3, (byte) 0xeb, (byte) 0xc3,
+            (byte) 0xc5, (byte) 0x81, (byte) 0xa0, (byte) 0xff, (byte) 0xfa, (byte) 0x13, (byte) 0x63, (byte) 0xeb,
+            (byte) 0x17, (byte) 0x0d, (byte) 0xdd, (byte) 0x51, (byte) 0xb7, (byte) 0xf0, (byte) 0xda, (byte) 0x49,
+            (byte) 0xd3, (byte) 0x16, (byte) 0x55, (byte) 0x26, (byte) 0x29, (byte) 0xd4, (byte) 0x68, (byte) 0x9e,
+            (byte) 0x2b, (byte) 0x16, (byte) 0xbe, (byte) 0x58, (byte) 0x7d, (byte) 0x47, (byte) 0xa1, (byte) 0xfc,
+            (byte) 0x8f, (byte) 0xf8, (byte) 0xb8, (byte) 0xd1, (byte) 0x7a, (byte) 0xd0, (byte) 0x31, (byte) 0xce,
+            (byte) 0x45, (byte) 0xcb, (byte) 0x3a, (byte) 0x8f, (byte) 0x95, (byte) 0x16, (byte) 0x04, (byte) 0x28,
+            (byte) 0xaf, (byte) 0xd7, (byte) 0xfb, (byte) 0xca, (byte) 0xbb, (byte) 0x4b, (byte) 0x40, (byte) 0x7e,
+    }).order(ByteOrder.LITTLE_ENDIAN);
+    private final static int SECRET_SIZE = SECRET.capacity();
+
+    private final long[] accumulators = new long[8];
+    private final long[] finalAccumulators = new long[8];
+    private final ByteBuffer buffer;
+    private final ByteBuffer lastStripe;
+    private int buffered;
+    private int stripesInBlock;
+    private long totalLength;
+
+    public Xxh3Digest() {
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.lastStripe = ByteBuffer.allocate(STRIPE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        reset();
+    }
+
+    @Override
+    public int length() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void reset() {
+        accumulators[0] = PRIME32_3;
+        accumulators[1] = PRIME64_1;
+        accumulators[2] = PRIME64_2;
+        accumulators[3] = PRIME64_3;
+        accumulators[4] = PRIME64_4;
+        accumulators[5] = PRIME32_2;
+        accumulators[6] = PRIME64_5;
+        accumulators[7] = PRIME32_1;
+        buffered = 0;
+        stripesInBlock = 0;
+        totalLength = 0;
+    }
+
+    @Override
+    public void update(ByteBuffer input) {
+        totalLength += input.remaining();
+        final ByteOrder order = input.order();
+        input.order(ByteOrder.LITTLE_ENDIAN);
+
+        // buffered stripes are consumed only when more input follows, since the last stripe is hashed differently
+        if (input.remaining() <= BUFFER_SIZE - buffered) {
+            copyToBuffer(input);
+            input.order(order);
+            return;
+        }
+        if (buffered > 0) {
+            final int fill = BUFFER_SIZE - buffered;
+            copyToBuffer(input.slice(input.position(), fill));
+            input.position(input.position() + fill);
+            consumeStripes(accumulators, buffer, 0, BUFFER_SIZE / STRIPE_SIZE);
+            buffered = 0;
+        }
+        if (input.remaining() > BUFFER_SIZE) {
+            int position = input.position();
+            while (input.limit() - position > BUFFER_SIZE) {
+                consumeStripes(accumulators, input, position, BUFFER_SIZE / STRIPE_SIZE);
+                position += BUFFER_SIZE;
+            }
+            // keep the last consumed stripe in case the final one overlaps it
+            buffer.put(BUFFER_SIZE - STRIPE_SIZE, input, position - STRIPE_SIZE, STRIPE_SIZE);
+            input.position(position);
+        }
+        copyToBuffer(input);
+        input.order(order);
+    }
+
+    @Override
+    public void digest(byte[] output) {
+        final long hash = totalLength > MIDSIZE_MAX ? digestLong() : digestShort((int) totalLength);
+        for (int i = 0; i != Long.BYTES; ++i) {
+            output[i] = (byte) (hash >>> (Byte.SIZE * (Long.BYTES - 1 - i)));
+        }
+        reset();
+    }
+
+
+    private void copyToBuffer(ByteBuffer input) {
+        final int length = input.remaining();
+        buffer.put(buffered, input, input.position(), length);
+        input.position(input.position() + length);
+        buffered += length;
+    }
+
+    private long digestLong() {
+        System.arraycopy(accumulators, 0, finalAccumulators, 0, accumulators.length);
+        final int savedStripes = stripesInBlock;
+        if (buffered >= STRIPE_SIZE) {
+            consumeStripes(finalAccumulators, buffer, 0, (buffered - 1) / STRIPE_SIZE);
+            accumulate(finalAccumulators, buffer, buffered - STRIPE_SIZE, SECRET_SIZE - STRIPE_SIZE - 7);
+        } else {
+            // the last stripe starts in the previously consumed input
+            final int previous = STRIPE_SIZE - buffered;
+            lastStripe.put(0, buffer, BUFFER_SIZE - previous, previous);
+            lastStripe.put(previous, buffer, 0, buffered);
+            accumulate(finalAccumulators, lastStripe, 0, SECRET_SIZE - STRIPE_SIZE - 7);
+        }
+        stripesInBlock = savedStripes;
+
+        long result = totalLength * PRIME64_1;
+        for (int i = 0; i != 4; ++i) {
+            result += multiplyFold(
+                    finalAccumulators[2 * i] ^ SECRET.getLong(11 + 16 * i),
+                    finalAccumulators[2 * i + 1] ^ SECRET.getLong(11 + 16 * i + 8)
+            );
+        }
+        return avalanche(result);
+    }
+
+    private void consumeStripes(long[] acc, ByteBuffer input, int offset, int stripes) {
+        for (int i = 0; i != stripes; ++i) {
+            accumulate(acc, input, offset + i * STRIPE_SIZE, stripesInBlock * SECRET_CONSUME_RATE);
+            if (++stripesInBlock == STRIPES_PER_BLOCK) {
+                scramble(acc);
+                stripesInBlock = 0;
+            }
+        }
+    }
+
+    private static void accumulate(long[] acc, ByteBuffer input, int offset, int secretOffset) {
+        for (int i = 0; i != acc.length; ++i) {
+            final long value = input.getLong(offset + Long.BYTES * i);
+            final long key = value ^ SECRET.getLong(secretOffset + Long.BYTES * i);
+            acc[i ^ 1] += value;
+            acc[i] += (key & 0xFFFFFFFFL) * (key >>> 32);
+        }
+    }
+
+    private static void scramble(long[] acc) {
+        for (int i = 0; i != acc.length; ++i) {
+            long value = acc[i];
+            value ^= value >>> 47;
+            value ^= SECRET.getLong(SECRET_SIZE - STRIPE_SIZE + Long.BYTES * i);
+            acc[i] = value * PRIME32_1;
+        }
+    }
+
+    private long digestShort(int length) {
+        if (length > 128) {
+            long acc = length * PRIME64_1;
+            for (int i = 0; i != 8; ++i) {
+                acc += mix16(16 * i, 16 * i);
+            }
+            acc = avalanche(acc);
+            for (int i = 8; i != length / 16; ++i) {
+                acc += mix16(16 * i, 16 * (i - 8) + 3);
+            }
+            acc += mix16(length - 16, 136 - 17);
+            return avalanche(acc);
+        }
+        if (length > 16) {
+            long acc = length * PRIME64_1;
+            if (length > 32) {
+                if (length > 64) {
+                    if (length > 96) {
+                        acc += mix16(48, 96);
+                        acc += mix16(length - 64, 112);
+                    }
+                    acc += mix16(32, 64);
+                    acc += mix16(length - 48, 80);
+                }
+                acc += mix16(16, 32);
+                acc += mix16(length - 32, 48);
+            }
+            acc += mix16(0, 0);
+            acc += mix16(length - 16, 16);
+            return avalanche(acc);
+        }
+        if (length > 8) {
+            final long low = buffer.getLong(0) ^ (SECRET.getLong(24) ^ SECRET.getLong(32));
+            final long high = buffer.getLong(length - 8) ^ (SECRET.getLong(40) ^ SECRET.getLong(48));
+            return avalanche(length + Long.reverseBytes(low) + high + multiplyFold(low, high));
+        }
+        if (length >= 4) {
+            final long first = Integer.toUnsignedLong(buffer.getInt(0));
+            final long last = Integer.toUnsignedLong(buffer.getInt(length - 4));
+            final long keyed = (last + (first << 32)) ^ (SECRET.getLong(8) ^ SECRET.getLong(16));
+            long hash = keyed ^ Long.rotateLeft(keyed, 49) ^ Long.rotateLeft(keyed, 24);
+            hash *= PRIME_MX2;
+            hash ^= (hash >>> 35) + length;
+            hash *= PRIME_MX2;
+            return hash ^ (hash >>> 28);
+        }
+        if (length > 0) {
+            final long combined = (Byte.toUnsignedLong(buffer.get(0)) << 16)
+                    | (Byte.toUnsignedLong(buffer.get(length >> 1)) << 24)
+                    | Byte.toUnsignedLong(buffer.get(length - 1))
+                    | ((long) length << 8);
+            final long flip = Integer.toUnsignedLong(SECRET.getInt(0) ^ SECRET.getInt(4));
+            return avalanche64(combined ^ flip);
+        }
+        return avalanche64(SECRET.getLong(56) ^ SECRET.getLong(64));
+    }
+
+    private long mix16(int offset, int secretOffset) {
+        return multiplyFold(
+                buffer.getLong(offset) ^ SECRET.getLong(secretOffset),
+                buffer.getLong(offset + 8) ^ SECRET.getLong(secretOffset + 8)
+        );
+    }
+
+    private static long multiplyFold(long left, long right) {
+        final long high = Math.multiplyHigh(left, right) + ((left >> 63) & right) + ((right >> 63) & left);
+        return left * right ^ high;
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 37;
+        hash *= PRIME_MX1;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static long avalanche64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        return hash ^ (hash >>> 32);
+    }
+}
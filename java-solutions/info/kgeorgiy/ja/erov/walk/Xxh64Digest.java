@@ -0,0 +1,130 @@
+package info.kgeorgiy.ja.erov.walk;
+
+import info.kgeorgiy.ja.erov.walk.spi.Digest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class Xxh64Digest implements Digest {
+    private final static long PRIME_1 = 0x9E3779B185EBCA87L;
+    private final static long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private final static long PRIME_3 = 0x165667B19E3779F9L;
+    private final static long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private final static long PRIME_5 = 0x27D4EB2F165667C5L;
+    private final static int STRIPE_SIZE = 32;
+
+    private final long seed;
+    private final ByteBuffer stripe;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long totalLength;
+
+    public Xxh64Digest() {
+        this(0);
+    }
+
+    public Xxh64Digest(long seed) {
+        this.seed = seed;
+        this.stripe = ByteBuffer.allocate(STRIPE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        reset();
+    }
+
+    @Override
+    public int length() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void reset() {
+        v1 = seed + PRIME_1 + PRIME_2;
+        v2 = seed + PRIME_2;
+        v3 = seed;
+        v4 = seed - PRIME_1;
+        totalLength = 0;
+        stripe.clear();
+    }
+
+    @Override
+    public void update(ByteBuffer buffer) {
+        totalLength += buffer.remaining();
+        final ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (stripe.position() > 0) {
+            while (stripe.hasRemaining() && buffer.hasRemaining()) {
+                stripe.put(buffer.get());
+            }
+            if (stripe.hasRemaining()) {
+                buffer.order(order);
+                return;
+            }
+            stripe.flip();
+            consumeStripe(stripe);
+            stripe.clear();
+        }
+
+        while (buffer.remaining() >= STRIPE_SIZE) {
+            consumeStripe(buffer);
+        }
+        stripe.put(buffer);
+        buffer.order(order);
+    }
+
+    @Override
+    public void digest(byte[] output) {
+        long hash;
+        if (totalLength >= STRIPE_SIZE) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME_5;
+        }
+        hash += totalLength;
+
+        stripe.flip();
+        while (stripe.remaining() >= Long.BYTES) {
+            hash ^= round(0, stripe.getLong());
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        if (stripe.remaining() >= Integer.BYTES) {
+            hash ^= Integer.toUnsignedLong(stripe.getInt()) * PRIME_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+        }
+        while (stripe.hasRemaining()) {
+            hash ^= Byte.toUnsignedLong(stripe.get()) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+
+        for (int i = 0; i != Long.BYTES; ++i) {
+            output[i] = (byte) (hash >>> (Byte.SIZE * (Long.BYTES - 1 - i)));
+        }
+        reset();
+    }
+
+
+    private void consumeStripe(ByteBuffer buffer) {
+        v1 = round(v1, buffer.getLong());
+        v2 = round(v2, buffer.getLong());
+        v3 = round(v3, buffer.getLong());
+        v4 = round(v4, buffer.getLong());
+    }
+
+    private static long round(long accumulator, long input) {
+        return Long.rotateLeft(accumulator + input * PRIME_2, 31) * PRIME_1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        return (accumulator ^ round(0, value)) * PRIME_1 + PRIME_4;
+    }
+}
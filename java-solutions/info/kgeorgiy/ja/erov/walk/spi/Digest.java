@@ -0,0 +1,13 @@
+package info.kgeorgiy.ja.erov.walk.spi;
+
+import java.nio.ByteBuffer;
+
+public interface Digest {
+    int length();
+
+    void reset();
+
+    void update(ByteBuffer buffer);
+
+    void digest(byte[] output);
+}
@@ -0,0 +1,7 @@
+package info.kgeorgiy.ja.erov.walk.spi;
+
+public interface DigestProvider {
+    String name();
+
+    Digest create();
+}
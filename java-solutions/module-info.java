@@ -15,4 +15,9 @@ open module info.kgeorgiy.ja.erov {
     requires info.kgeorgiy.java.advanced.hello;
 
     requires java.compiler;
+    requires java.management;
+
+    exports info.kgeorgiy.ja.erov.walk.spi;
+
+    uses info.kgeorgiy.ja.erov.walk.spi.DigestProvider;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+#!/bin/bash
+
+jmhLibs="../../jmh/"
+javaSolutions="../java-solutions/"
+javaBenchmarks="../java-benchmarks/"
+arraySetPath="info/kgeorgiy/ja/erov/arrayset/"
+jarName="arrayset-benchmarks.jar"
+
+mkdir out/
+javac -cp $jmhLibs"*" -d out/ $(find $javaSolutions$arraySetPath $javaBenchmarks$arraySetPath -name "*.java")
+jar -c -f $jarName -C out/ .
+rm -rf out/
+echo $jarName" was created"
+
+java -cp $jarName":"$jmhLibs"*" org.openjdk.jmh.Main "$@"
\ No newline at end of file
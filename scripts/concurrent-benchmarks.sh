@@ -0,0 +1,16 @@
+#!/bin/bash
+
+jmhLibs="../../jmh/"
+kgeorgiyAtrifacts="../../java-advanced-2022/artifacts/"
+javaSolutions="../java-solutions/"
+javaBenchmarks="../java-benchmarks/"
+concurrentPath="info/kgeorgiy/ja/erov/concurrent/"
+jarName="concurrent-benchmarks.jar"
+
+mkdir out/
+javac -cp $jmhLibs"*:"$kgeorgiyAtrifacts"*" -d out/ $(find $javaSolutions$concurrentPath $javaBenchmarks$concurrentPath -name "*.java")
+jar -c -f $jarName -C out/ .
+rm -rf out/
+echo $jarName" was created"
+
+java -cp $jarName":"$jmhLibs"*:"$kgeorgiyAtrifacts"*" org.openjdk.jmh.Main "$@"
\ No newline at end of file
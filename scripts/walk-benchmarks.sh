@@ -0,0 +1,15 @@
+#!/bin/bash
+
+jmhLibs="../../jmh/"
+javaSolutions="../java-solutions/"
+javaBenchmarks="../java-benchmarks/"
+walkPath="info/kgeorgiy/ja/erov/walk/"
+jarName="walk-benchmarks.jar"
+
+mkdir out/
+javac -cp $jmhLibs"*" -d out/ $(find $javaSolutions$walkPath $javaBenchmarks$walkPath -name "*.java")
+jar -c -f $jarName -C out/ .
+rm -rf out/
+echo $jarName" was created"
+
+java -cp $jarName":"$jmhLibs"*" org.openjdk.jmh.Main "$@"
\ No newline at end of file